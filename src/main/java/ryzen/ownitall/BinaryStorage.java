@@ -0,0 +1,338 @@
+package ryzen.ownitall;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.function.Consumer;
+
+import ryzen.ownitall.classes.Album;
+import ryzen.ownitall.classes.Artist;
+import ryzen.ownitall.classes.LikedSongs;
+import ryzen.ownitall.classes.Playlist;
+import ryzen.ownitall.classes.Song;
+import ryzen.ownitall.util.BinaryInput;
+import ryzen.ownitall.util.BinaryOutput;
+
+/**
+ * <p>
+ * BinaryStorage class.
+ * </p>
+ * binary snapshot format of the collection files
+ * one length prefixed record per album / playlist, artist and album names are
+ * interned and durations are varints
+ * cache imports are kept to migrate old binary cache files
+ *
+ * @author ryzen
+ */
+public class BinaryStorage {
+    private static final String ALBUMS = "OWAL";
+    private static final String PLAYLISTS = "OWPL";
+    private static final String LIKEDSONGS = "OWLS";
+    private static final String ALBUMCACHE = "OWCA";
+    private static final String ARTISTCACHE = "OWCR";
+    private static final String SONGCACHE = "OWCS";
+    private static final String IDCACHE = "OWCI";
+
+    @FunctionalInterface
+    private interface RecordWriter<T> {
+        void write(BinaryOutput output, T value) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface RecordReader<T> {
+        T read(BinaryInput input) throws IOException;
+    }
+
+    /**
+     * write albums, one record per album
+     *
+     * @param file   - file to write to
+     * @param albums - albums to write
+     * @throws IOException - exception writing file
+     */
+    public static void exportAlbums(File file, Iterable<Album> albums) throws IOException {
+        exportRecords(file, ALBUMS, albums, BinaryStorage::writeAlbum);
+    }
+
+    /**
+     * read albums, each album is passed on as soon as it is read
+     *
+     * @param file     - file to read from
+     * @param consumer - function to pass each constructed Album to
+     * @return - amount of albums read
+     * @throws IOException - exception reading file
+     */
+    public static int importAlbums(File file, Consumer<Album> consumer) throws IOException {
+        return importRecords(file, ALBUMS, BinaryStorage::readAlbum, consumer);
+    }
+
+    /**
+     * write playlists, one record per playlist
+     *
+     * @param file      - file to write to
+     * @param playlists - playlists to write
+     * @throws IOException - exception writing file
+     */
+    public static void exportPlaylists(File file, Iterable<Playlist> playlists) throws IOException {
+        exportRecords(file, PLAYLISTS, playlists, BinaryStorage::writePlaylist);
+    }
+
+    /**
+     * read playlists, each playlist is passed on as soon as it is read
+     *
+     * @param file     - file to read from
+     * @param consumer - function to pass each constructed Playlist to
+     * @return - amount of playlists read
+     * @throws IOException - exception reading file
+     */
+    public static int importPlaylists(File file, Consumer<Playlist> consumer) throws IOException {
+        return importRecords(file, PLAYLISTS, BinaryStorage::readPlaylist, consumer);
+    }
+
+    /**
+     * write liked songs, one record per song
+     *
+     * @param file       - file to write to
+     * @param likedSongs - liked songs to write
+     * @throws IOException - exception writing file
+     */
+    public static void exportLikedSongs(File file, LikedSongs likedSongs) throws IOException {
+        exportRecords(file, LIKEDSONGS, likedSongs.getSongs(), BinaryStorage::writeSong);
+    }
+
+    /**
+     * read liked songs
+     *
+     * @param file - file to read from
+     * @return - constructed LikedSongs
+     * @throws IOException - exception reading file
+     */
+    public static LikedSongs importLikedSongs(File file) throws IOException {
+        LikedSongs likedSongs = new LikedSongs();
+        importRecords(file, LIKEDSONGS, BinaryStorage::readSong, likedSongs::addSong);
+        return likedSongs;
+    }
+
+    /**
+     * read cached albums
+     *
+     * @param file - file to read from
+     * @return - linkedhashmap of cached albums
+     * @throws IOException - exception reading file
+     */
+    public static LinkedHashMap<String, Album> importAlbumCache(File file) throws IOException {
+        return importCache(file, ALBUMCACHE, BinaryStorage::readAlbum);
+    }
+
+    /**
+     * read cached artists
+     *
+     * @param file - file to read from
+     * @return - linkedhashmap of cached artists
+     * @throws IOException - exception reading file
+     */
+    public static LinkedHashMap<String, Artist> importArtistCache(File file) throws IOException {
+        return importCache(file, ARTISTCACHE, BinaryStorage::readArtist);
+    }
+
+    /**
+     * read cached songs
+     *
+     * @param file - file to read from
+     * @return - linkedhashmap of cached songs
+     * @throws IOException - exception reading file
+     */
+    public static LinkedHashMap<String, Song> importSongCache(File file) throws IOException {
+        return importCache(file, SONGCACHE, BinaryStorage::readSong);
+    }
+
+    /**
+     * read cached ids
+     *
+     * @param file - file to read from
+     * @return - linkedhashmap of cached ids
+     * @throws IOException - exception reading file
+     */
+    public static LinkedHashMap<String, String> importIdCache(File file) throws IOException {
+        return importCache(file, IDCACHE, BinaryInput::readString);
+    }
+
+    private static <T> LinkedHashMap<String, T> importCache(File file, String magic, RecordReader<T> reader)
+            throws IOException {
+        LinkedHashMap<String, T> cache = new LinkedHashMap<>();
+        importRecords(file, magic, input -> new AbstractMap.SimpleEntry<>(input.readString(), reader.read(input)),
+                entry -> cache.put(entry.getKey(), entry.getValue()));
+        return cache;
+    }
+
+    /**
+     * write all values as records
+     * written to a temporary file first so a failed write keeps the old file
+     */
+    private static <T> void exportRecords(File file, String magic, Iterable<T> values, RecordWriter<T> writer)
+            throws IOException {
+        File tempFile = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (BinaryOutput output = new BinaryOutput(new BufferedOutputStream(new FileOutputStream(tempFile)),
+                magic)) {
+            for (T value : values) {
+                writer.write(output, value);
+                output.endRecord();
+            }
+        } catch (IOException e) {
+            tempFile.delete();
+            throw e;
+        }
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static <T> int importRecords(File file, String magic, RecordReader<T> reader, Consumer<T> consumer)
+            throws IOException {
+        int count = 0;
+        try (BinaryInput input = new BinaryInput(new BufferedInputStream(new FileInputStream(file)), magic)) {
+            while (input.nextRecord()) {
+                consumer.accept(reader.read(input));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void writeIds(BinaryOutput output, LinkedHashMap<String, String> ids) throws IOException {
+        output.writeVarLong(ids.size());
+        for (String key : ids.keySet()) {
+            output.writeInterned(key);
+            output.writeString(ids.get(key));
+        }
+    }
+
+    private static LinkedHashMap<String, String> readIds(BinaryInput input) throws IOException {
+        LinkedHashMap<String, String> ids = new LinkedHashMap<>();
+        int size = input.readVarInt();
+        for (int i = 0; i < size; i++) {
+            ids.put(input.readInterned(), input.readString());
+        }
+        return ids;
+    }
+
+    private static String uriString(URI uri) {
+        if (uri == null) {
+            return null;
+        }
+        return uri.toString();
+    }
+
+    private static void writeArtist(BinaryOutput output, Artist artist) throws IOException {
+        output.writeInterned(artist.getName());
+        output.writeString(uriString(artist.getCoverImage()));
+        writeIds(output, artist.getIds());
+        output.writeLong(artist.getContentId());
+    }
+
+    private static Artist readArtist(BinaryInput input) throws IOException {
+        String name = input.readInterned();
+        String coverImage = input.readString();
+        Artist artist = new Artist(name, readIds(input), coverImage);
+        artist.setContentId(input.readLong());
+        return artist;
+    }
+
+    private static void writeArtists(BinaryOutput output, ArrayList<Artist> artists) throws IOException {
+        output.writeVarLong(artists.size());
+        for (Artist artist : artists) {
+            writeArtist(output, artist);
+        }
+    }
+
+    private static ArrayList<Artist> readArtists(BinaryInput input) throws IOException {
+        ArrayList<Artist> artists = new ArrayList<>();
+        int size = input.readVarInt();
+        for (int i = 0; i < size; i++) {
+            artists.add(readArtist(input));
+        }
+        return artists;
+    }
+
+    private static void writeSong(BinaryOutput output, Song song) throws IOException {
+        output.writeString(song.getName());
+        writeArtists(output, song.getArtists());
+        output.writeVarLong(song.getDuration().toSeconds());
+        output.writeInterned(song.getAlbumName());
+        output.writeString(uriString(song.getCoverImage()));
+        writeIds(output, song.getIds());
+        output.writeLong(song.getContentId());
+    }
+
+    private static Song readSong(BinaryInput input) throws IOException {
+        String name = input.readString();
+        ArrayList<Artist> artists = readArtists(input);
+        long duration = input.readVarLong();
+        String albumName = input.readInterned();
+        String coverImage = input.readString();
+        Song song = new Song(name, artists, readIds(input), duration, albumName, coverImage);
+        song.setContentId(input.readLong());
+        return song;
+    }
+
+    private static void writeSongs(BinaryOutput output, ArrayList<Song> songs) throws IOException {
+        output.writeVarLong(songs.size());
+        for (Song song : songs) {
+            writeSong(output, song);
+        }
+    }
+
+    private static ArrayList<Song> readSongs(BinaryInput input) throws IOException {
+        ArrayList<Song> songs = new ArrayList<>();
+        int size = input.readVarInt();
+        for (int i = 0; i < size; i++) {
+            songs.add(readSong(input));
+        }
+        return songs;
+    }
+
+    private static void writePlaylist(BinaryOutput output, Playlist playlist) throws IOException {
+        output.writeString(playlist.getName());
+        output.writeString(uriString(playlist.getCoverImage()));
+        writeIds(output, playlist.getIds());
+        output.writeLong(playlist.getContentId());
+        writeSongs(output, playlist.getSongs());
+    }
+
+    private static Playlist readPlaylist(BinaryInput input) throws IOException {
+        String name = input.readString();
+        String coverImage = input.readString();
+        LinkedHashMap<String, String> ids = readIds(input);
+        long contentId = input.readLong();
+        Playlist playlist = new Playlist(name, readSongs(input), ids, coverImage);
+        playlist.setContentId(contentId);
+        return playlist;
+    }
+
+    private static void writeAlbum(BinaryOutput output, Album album) throws IOException {
+        output.writeInterned(album.getName());
+        output.writeString(uriString(album.getCoverImage()));
+        writeIds(output, album.getIds());
+        output.writeLong(album.getContentId());
+        writeArtists(output, album.getArtists());
+        writeSongs(output, album.getSongs());
+    }
+
+    private static Album readAlbum(BinaryInput input) throws IOException {
+        String name = input.readInterned();
+        String coverImage = input.readString();
+        LinkedHashMap<String, String> ids = readIds(input);
+        long contentId = input.readLong();
+        ArrayList<Artist> artists = readArtists(input);
+        Album album = new Album(name, readSongs(input), ids, coverImage, artists);
+        album.setContentId(contentId);
+        return album;
+    }
+}
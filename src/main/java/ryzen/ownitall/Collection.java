@@ -3,13 +3,17 @@ package ryzen.ownitall;
 import java.io.File;
 import java.util.ArrayList;
 
+import com.fasterxml.jackson.databind.JsonNode;
+
 import ryzen.ownitall.classes.Album;
 import ryzen.ownitall.classes.LikedSongs;
 import ryzen.ownitall.classes.Playlist;
 import ryzen.ownitall.classes.Song;
 import ryzen.ownitall.util.FileTools;
+import ryzen.ownitall.util.HashIndex;
 import ryzen.ownitall.util.Logger;
 import ryzen.ownitall.util.ProgressBar;
+import ryzen.ownitall.util.ReverseIndex;
 
 /**
  * <p>
@@ -23,16 +27,31 @@ public class Collection {
     private static LikedSongs likedSongs = new LikedSongs();
     private static ArrayList<Playlist> playlists = new ArrayList<>();
     private static ArrayList<Album> albums = new ArrayList<>();
+    // lookup indexes, have to be kept in sync with the arraylists above
+    private static HashIndex<Playlist> playlistIndex = new HashIndex<>(Playlist::getIndexKeys, Playlist::matches);
+    private static HashIndex<Album> albumIndex = new HashIndex<>(Album::getIndexKeys, Album::matches);
+    // song to the albums / playlists it is part of
+    private static ReverseIndex<Song, Album> albumSongIndex = new ReverseIndex<>(Song::getIndexKeys,
+            Song::matches);
+    private static ReverseIndex<Song, Playlist> playlistSongIndex = new ReverseIndex<>(Song::getIndexKeys,
+            Song::matches);
+    // no journaling while loading / replaying
+    private static boolean journalPaused = false;
 
     public static void load() {
-        try (ProgressBar pb = new ProgressBar("Loading data", 3)) {
+        journalPaused = true;
+        try (ProgressBar pb = new ProgressBar("Loading data", 4)) {
             pb.step("Albums");
             loadAlbums();
             pb.step("Playlists");
             loadPlaylists();
             pb.step("Liked Songs");
             loadLikedSongs();
+            pb.step("Journal");
+            replayJournal();
             logger.debug("Successfully loaded collection");
+        } finally {
+            journalPaused = false;
         }
     }
 
@@ -47,10 +66,161 @@ public class Collection {
             savePlaylists();
             pb.step("Liked Songs");
             saveLikedSongs();
+            Storage.clearJournal();
             logger.debug("Successfully saved collection");
         }
     }
 
+    /**
+     * write the journal into the collection files
+     * same as save without progress bar, as it happens during other actions
+     */
+    private static void compact() {
+        logger.debug("Compacting journal of " + Storage.getJournalSize() + " entries");
+        saveAlbums();
+        savePlaylists();
+        saveLikedSongs();
+        Storage.clearJournal();
+    }
+
+    /**
+     * append change to journal if enabled
+     * compacts the journal when it reaches the compaction size
+     *
+     * @param operation - operation done, ex: "add"
+     * @param type      - type of collection entry, ex: "album"
+     * @param target    - content id of the entry the operation is done on
+     * @param value     - value of the operation, null if none
+     */
+    private static void journal(String operation, String type, long target, Object value) {
+        if (!Settings.collectionJournal || journalPaused) {
+            return;
+        }
+        Storage.appendJournal(operation, type, target, value);
+        if (Storage.getJournalSize() >= Settings.journalCompactSize) {
+            compact();
+        }
+    }
+
+    /**
+     * get the journal type of a collection entry
+     *
+     * @param playlist - liked songs, playlist or album
+     * @return - String journal type
+     */
+    private static String getJournalType(Playlist playlist) {
+        if (playlist instanceof Album) {
+            return "album";
+        }
+        if (playlist instanceof LikedSongs) {
+            return "likedsongs";
+        }
+        return "playlist";
+    }
+
+    /**
+     * get the collection entry a journal entry is about
+     *
+     * @param type   - journal type
+     * @param target - content id of target
+     * @return - liked songs, playlist, album or null
+     */
+    private static Playlist getJournalTarget(String type, long target) {
+        switch (type) {
+            case "likedsongs":
+                return likedSongs;
+            case "album":
+                return getAlbum(target);
+            case "playlist":
+                return getPlaylist(target);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * replay all journal entries on top of the loaded collection files
+     */
+    private static void replayJournal() {
+        for (JsonNode entry : Storage.importJournal()) {
+            String operation = entry.path("op").asText();
+            String type = entry.path("type").asText();
+            long target = entry.path("target").asLong();
+            Class<? extends Playlist> typeClass = Playlist.class;
+            if (type.equals("album")) {
+                typeClass = Album.class;
+            }
+            switch (operation) {
+                case "add":
+                    if (type.equals("likedsongs")) {
+                        addLikedSong(Storage.getJournalValue(entry, Song.class));
+                    } else if (type.equals("album")) {
+                        addAlbum(Storage.getJournalValue(entry, Album.class));
+                    } else {
+                        addPlaylist(Storage.getJournalValue(entry, Playlist.class));
+                    }
+                    break;
+                case "remove":
+                    if (type.equals("likedsongs")) {
+                        removeLikedSong(Storage.getJournalValue(entry, Song.class));
+                    } else if (type.equals("album")) {
+                        removeAlbum(getAlbum(target));
+                    } else {
+                        removePlaylist(getPlaylist(target));
+                    }
+                    break;
+                case "clear":
+                    if (type.equals("likedsongs")) {
+                        clearLikedSongs();
+                    } else if (type.equals("album")) {
+                        clearAlbums();
+                    } else {
+                        clearPlaylists();
+                    }
+                    break;
+                case "merge":
+                    mergePlaylist(getJournalTarget(type, target), Storage.getJournalValue(entry, Playlist.class));
+                    break;
+                case "addSong":
+                    addPlaylistSong(getJournalTarget(type, target), Storage.getJournalValue(entry, Song.class));
+                    break;
+                case "removeSong":
+                    removePlaylistSong(getJournalTarget(type, target), Storage.getJournalValue(entry, Song.class));
+                    break;
+                case "update":
+                    Playlist playlist = getJournalTarget(type, target);
+                    Playlist updatedPlaylist = Storage.getJournalValue(entry, typeClass);
+                    if (playlist != null && updatedPlaylist != null) {
+                        playlist.setName(updatedPlaylist.getName());
+                        playlist.setCoverImage(updatedPlaylist.getCoverImage());
+                        // songs added before the update, ex: merged with a library match
+                        if (playlist instanceof Album && updatedPlaylist instanceof Album) {
+                            ((Album) playlist).merge((Album) updatedPlaylist);
+                        } else {
+                            playlist.merge(updatedPlaylist);
+                        }
+                        reindex(playlist);
+                    }
+                    break;
+                case "updateSong":
+                    Playlist songPlaylist = getJournalTarget(type, target);
+                    Song updatedSong = Storage.getJournalValue(entry, Song.class);
+                    if (songPlaylist != null && updatedSong != null) {
+                        Song song = songPlaylist.getSong(updatedSong.getContentId());
+                        if (song != null) {
+                            song.setName(updatedSong.getName());
+                            song.merge(updatedSong);
+                            song.addIds(updatedSong.getIds());
+                            reindexSong(songPlaylist, song);
+                        }
+                    }
+                    break;
+                default:
+                    logger.warn("Unknown journal operation '" + operation + "'");
+            }
+        }
+    }
+
     /**
      * clear current collection
      */
@@ -60,6 +230,19 @@ public class Collection {
         clearAlbums();
     }
 
+    /**
+     * clear current collection in memory only, without journaling
+     * used when the collection files are replaced, ex: (un)archiving
+     */
+    public static void unload() {
+        journalPaused = true;
+        try {
+            clear();
+        } finally {
+            journalPaused = false;
+        }
+    }
+
     public static void loadLikedSongs() {
         addLikedSongs(Storage.importLikedSongs());
     }
@@ -74,11 +257,12 @@ public class Collection {
      * </p>
      */
     public static void clearLikedSongs() {
-        likedSongs.getSongs().clear();
+        likedSongs.clearSongs();
+        journal("clear", "likedsongs", 0, null);
     }
 
     public static void loadPlaylists() {
-        addPlaylists(Storage.importPlaylists());
+        Storage.importPlaylists(Collection::addPlaylist);
     }
 
     public static void savePlaylists() {
@@ -92,10 +276,13 @@ public class Collection {
      */
     public static void clearPlaylists() {
         playlists.clear();
+        playlistIndex.clear();
+        playlistSongIndex.clear();
+        journal("clear", "playlist", 0, null);
     }
 
     public static void loadAlbums() {
-        addAlbums(Storage.importAlbums());
+        Storage.importAlbums(Collection::addAlbum);
     }
 
     public static void saveAlbums() {
@@ -109,6 +296,9 @@ public class Collection {
      */
     public static void clearAlbums() {
         albums.clear();
+        albumIndex.clear();
+        albumSongIndex.clear();
+        journal("clear", "album", 0, null);
     }
 
     /**
@@ -121,7 +311,9 @@ public class Collection {
             logger.debug("null liked songs passed in addLikedSongs");
             return;
         }
-        likedSongs.addSongs(fromLikedSongs.getSongs()); // handled by playlist addSongs
+        for (Song song : fromLikedSongs.getSongs()) {
+            addLikedSong(song);
+        }
     }
 
     /**
@@ -135,6 +327,7 @@ public class Collection {
             return;
         }
         likedSongs.addSong(song);
+        journal("add", "likedsongs", 0, song);
     }
 
     /**
@@ -147,7 +340,12 @@ public class Collection {
             logger.debug("null song provided in removeLikedSong");
             return;
         }
-        likedSongs.removeSong(song);
+        Song foundSong = likedSongs.getSong(song);
+        if (foundSong == null) {
+            return;
+        }
+        likedSongs.removeSong(foundSong);
+        journal("remove", "likedsongs", 0, foundSong);
     }
 
     /**
@@ -160,20 +358,13 @@ public class Collection {
     }
 
     /**
-     * <p>
-     * getLikedSong.
-     * </p>
+     * get liked song by its content id
      *
-     * @param name a {@link java.lang.String} object
-     * @return a {@link ryzen.ownitall.classes.Song} object
+     * @param contentId - content id of song
+     * @return - found song or null
      */
-    public static Song getLikedSong(int hashCode) {
-        for (Song song : likedSongs.getSongs()) {
-            if (song.hashCode() == hashCode) {
-                return song;
-            }
-        }
-        return null;
+    public static Song getLikedSong(long contentId) {
+        return likedSongs.getSong(contentId);
     }
 
     /**
@@ -240,9 +431,15 @@ public class Collection {
         Album foundAlbum = getAlbum(album);
         if (foundAlbum != null) {
             foundAlbum.merge(album);
+            albumIndex.reindex(foundAlbum);
+            albumSongIndex.addAll(foundAlbum.getSongs(), foundAlbum);
         } else {
+            uniqueContentId(album, albumIndex);
             albums.add(album);
+            albumIndex.add(album);
+            albumSongIndex.addAll(album.getSongs(), album);
         }
+        journal("add", "album", 0, album);
     }
 
     /**
@@ -255,7 +452,15 @@ public class Collection {
             logger.debug("null album provided in removeAlbum");
             return;
         }
-        albums.remove(album);
+        // prefer the exact instance when it is part of the collection
+        Album foundAlbum = albumIndex.contains(album) ? album : getAlbum(album);
+        if (foundAlbum == null) {
+            return;
+        }
+        albums.removeIf(thisAlbum -> thisAlbum == foundAlbum);
+        albumIndex.remove(foundAlbum);
+        albumSongIndex.removeAll(foundAlbum.getSongs(), foundAlbum);
+        journal("remove", "album", foundAlbum.getContentId(), null);
     }
 
     /**
@@ -278,29 +483,21 @@ public class Collection {
             logger.debug("null album provided in getAlbum");
             return null;
         }
-        for (Album thisAlbum : albums) {
-            if (thisAlbum.equals(album)) {
-                return thisAlbum;
-            }
-        }
-        return null;
+        return albumIndex.find(album);
     }
 
     /**
-     * <p>
-     * getAlbum.
-     * </p>
+     * get album by its content id
      *
-     * @param name a {@link java.lang.String} object
-     * @return a {@link ryzen.ownitall.classes.Album} object
+     * @param contentId - content id of album
+     * @return - found album or null
      */
-    public static Album getAlbum(int hashCode) {
-        for (Album album : albums) {
-            if (album.hashCode() == hashCode) {
-                return album;
-            }
+    public static Album getAlbum(long contentId) {
+        ArrayList<Album> foundAlbums = albumIndex.get(HashIndex.exactKey("contentId", String.valueOf(contentId)));
+        if (foundAlbums.isEmpty()) {
+            return null;
         }
-        return null;
+        return foundAlbums.get(0);
     }
 
     public static Album getAlbum(String name) {
@@ -308,8 +505,8 @@ public class Collection {
             logger.debug("null albumname provided in getAlbum");
             return null;
         }
-        for (Album album : albums) {
-            if (album.getName().equalsIgnoreCase(name)) {
+        for (Album album : albumIndex.get(HashIndex.fuzzyKey("album", name))) {
+            if (album.getName().trim().equalsIgnoreCase(name.trim())) {
                 return album;
             }
         }
@@ -326,7 +523,7 @@ public class Collection {
         for (Song song : standaloneSongs) {
             Album album = getSongAlbum(song);
             if (album != null) {
-                album.addSong(song);
+                addPlaylistSong(album, song);
             }
         }
     }
@@ -342,12 +539,7 @@ public class Collection {
                 return album;
             }
         }
-        for (Album album : albums) {
-            if (album.contains(song)) {
-                return album;
-            }
-        }
-        return null;
+        return albumSongIndex.getFirst(song);
     }
 
     /**
@@ -379,9 +571,15 @@ public class Collection {
         Playlist foundPlaylist = getPlaylist(playlist);
         if (foundPlaylist != null) {
             foundPlaylist.merge(playlist);
+            playlistIndex.reindex(foundPlaylist);
+            playlistSongIndex.addAll(foundPlaylist.getSongs(), foundPlaylist);
         } else {
+            uniqueContentId(playlist, playlistIndex);
             playlists.add(playlist);
+            playlistIndex.add(playlist);
+            playlistSongIndex.addAll(playlist.getSongs(), playlist);
         }
+        journal("add", "playlist", 0, playlist);
     }
 
     /**
@@ -394,7 +592,34 @@ public class Collection {
             logger.debug("null playlist provided in removePlaylist");
             return;
         }
-        playlists.remove(playlist);
+        // prefer the exact instance when it is part of the collection
+        Playlist foundPlaylist = playlistIndex.contains(playlist) ? playlist : getPlaylist(playlist);
+        if (foundPlaylist == null) {
+            return;
+        }
+        playlists.removeIf(thisPlaylist -> thisPlaylist == foundPlaylist);
+        playlistIndex.remove(foundPlaylist);
+        playlistSongIndex.removeAll(foundPlaylist.getSongs(), foundPlaylist);
+        journal("remove", "playlist", foundPlaylist.getContentId(), null);
+    }
+
+    /**
+     * make the content id of a new album or playlist unique in its index
+     * content ids are kept when renaming, so a new entry can get the id of a
+     * renamed one, ex: renaming "A" to "B" and adding a new "A"
+     *
+     * @param playlist - album or playlist about to be added
+     * @param index    - index it is added to
+     */
+    private static <T extends Playlist> void uniqueContentId(T playlist, HashIndex<T> index) {
+        long contentId = playlist.getContentId();
+        while (contentId == 0 || !index.get(HashIndex.exactKey("contentId", String.valueOf(contentId))).isEmpty()) {
+            contentId++;
+        }
+        if (contentId != playlist.getContentId()) {
+            logger.debug("Content id of '" + playlist.getName() + "' already taken, using: " + contentId);
+            playlist.setContentId(contentId);
+        }
     }
 
     /**
@@ -417,29 +642,129 @@ public class Collection {
             logger.debug("null playlist provided in getPlaylist");
             return null;
         }
-        for (Playlist thisPlaylist : playlists) {
-            if (thisPlaylist.equals(playlist)) {
-                return thisPlaylist;
-            }
+        return playlistIndex.find(playlist);
+    }
+
+    /**
+     * get playlist by its content id
+     *
+     * @param contentId - content id of playlist
+     * @return - found playlist or null
+     */
+    public static Playlist getPlaylist(long contentId) {
+        ArrayList<Playlist> foundPlaylists = playlistIndex
+                .get(HashIndex.exactKey("contentId", String.valueOf(contentId)));
+        if (foundPlaylists.isEmpty()) {
+            return null;
         }
-        return null;
+        return foundPlaylists.get(0);
     }
 
     /**
-     * <p>
-     * getPlaylist.
-     * </p>
+     * merge a playlist into a playlist of the collection
      *
-     * @param name a {@link java.lang.String} object
-     * @return a {@link ryzen.ownitall.classes.Playlist} object
+     * @param playlist     - playlist in collection to merge into
+     * @param fromPlaylist - playlist to merge from
      */
-    public static Playlist getPlaylist(int hashCode) {
-        for (Playlist playlist : playlists) {
-            if (playlist.hashCode() == hashCode) {
-                return playlist;
+    public static void mergePlaylist(Playlist playlist, Playlist fromPlaylist) {
+        if (playlist == null || fromPlaylist == null) {
+            logger.debug("null playlist provided in mergePlaylist");
+            return;
+        }
+        playlist.merge(fromPlaylist);
+        updateIndex(playlist);
+        journal("merge", getJournalType(playlist), playlist.getContentId(), fromPlaylist);
+    }
+
+    /**
+     * add song to a playlist or album of the collection
+     *
+     * @param playlist - playlist or album in collection
+     * @param song     - song to add
+     */
+    public static void addPlaylistSong(Playlist playlist, Song song) {
+        if (playlist == null || song == null) {
+            logger.debug("null playlist or song provided in addPlaylistSong");
+            return;
+        }
+        playlist.addSong(song);
+        updateIndex(playlist);
+        journal("addSong", getJournalType(playlist), playlist.getContentId(), song);
+    }
+
+    /**
+     * remove song from a playlist or album of the collection
+     *
+     * @param playlist - playlist or album in collection
+     * @param song     - song to remove
+     */
+    public static void removePlaylistSong(Playlist playlist, Song song) {
+        if (playlist == null || song == null) {
+            logger.debug("null playlist or song provided in removePlaylistSong");
+            return;
+        }
+        Song foundSong = playlist.getSong(song);
+        if (foundSong == null) {
+            return;
+        }
+        playlist.removeSong(foundSong);
+        if (playlist instanceof Album) {
+            albumSongIndex.remove(foundSong, (Album) playlist);
+        } else {
+            playlistSongIndex.remove(foundSong, playlist);
+        }
+        journal("removeSong", getJournalType(playlist), playlist.getContentId(), foundSong);
+    }
+
+    /**
+     * update the collection index of a playlist or album after it was modified
+     * (renamed, songs added, ...)
+     *
+     * @param playlist - modified playlist or album in collection
+     */
+    public static void reindex(Playlist playlist) {
+        if (playlist == null) {
+            logger.debug("null playlist provided in reindex");
+            return;
+        }
+        updateIndex(playlist);
+        journal("update", getJournalType(playlist), playlist.getContentId(), playlist);
+    }
+
+    /**
+     * update the collection indexes of a playlist or album
+     *
+     * @param playlist - modified playlist or album in collection
+     */
+    private static void updateIndex(Playlist playlist) {
+        if (playlist instanceof Album) {
+            Album album = (Album) playlist;
+            if (albumIndex.contains(album)) {
+                albumIndex.reindex(album);
+                albumSongIndex.addAll(album.getSongs(), album);
             }
+        } else if (playlistIndex.contains(playlist)) {
+            playlistIndex.reindex(playlist);
+            playlistSongIndex.addAll(playlist.getSongs(), playlist);
         }
-        return null;
+    }
+
+    /**
+     * update the collection indexes of a song after it was modified (renamed,
+     * ...)
+     *
+     * @param playlist - playlist, album or liked songs holding the song
+     * @param song     - modified song
+     */
+    public static void reindexSong(Playlist playlist, Song song) {
+        if (playlist == null || song == null) {
+            logger.debug("null playlist or song provided in reindexSong");
+            return;
+        }
+        playlist.reindexSong(song);
+        albumSongIndex.reindex(song);
+        playlistSongIndex.reindex(song);
+        journal("updateSong", getJournalType(playlist), playlist.getContentId(), song);
     }
 
     /**
@@ -502,12 +827,7 @@ public class Collection {
             logger.debug("null song provided in getSongPlaylist");
             return null;
         }
-        for (Playlist playlist : getPlaylists()) {
-            if (playlist.contains(song)) {
-                return playlist;
-            }
-        }
-        return null;
+        return playlistSongIndex.getFirst(song);
     }
 
     /**
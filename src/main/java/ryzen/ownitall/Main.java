@@ -1,5 +1,7 @@
 package ryzen.ownitall;
 
+import java.io.IOException;
+
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.DefaultParser;
@@ -8,11 +10,17 @@ import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
 
 import ryzen.ownitall.library.Library;
+import ryzen.ownitall.method.FolderWatcher;
+import ryzen.ownitall.method.ScanIndex;
+import ryzen.ownitall.method.download.DownloadLedger;
+import ryzen.ownitall.util.ArtworkCache;
 import ryzen.ownitall.util.ClassLoader;
 import ryzen.ownitall.util.Input;
 import ryzen.ownitall.util.Logger;
 import ryzen.ownitall.util.Menu;
 import ryzen.ownitall.util.ProgressBar;
+import ryzen.ownitall.util.exceptions.AuthenticationException;
+import ryzen.ownitall.util.exceptions.MissingSettingException;
 import sun.misc.Signal;
 import sun.misc.SignalHandler;
 
@@ -42,6 +50,7 @@ public class Main {
         options.addOption("l", "log", true, "logging level");
         options.addOption("i", "noninteractive", true, "Enable non interactive");
         options.addOption("w", "web", false, "enable web front (localhost:8080)");
+        options.addOption("f", "watch", false, "keep collection in sync with the local library");
         CommandLineParser parser = new DefaultParser();
         try {
             CommandLine cmd = parser.parse(options, args);
@@ -64,7 +73,10 @@ public class Main {
                 ProgressBar.output = false;
                 Input.setNonInteractive(trace);
             }
-            if (cmd.hasOption("w") && !cmd.hasOption("i")) {
+            if (cmd.hasOption("f")) {
+                logger.debug("Watch parameter provided");
+                watch();
+            } else if (cmd.hasOption("w") && !cmd.hasOption("i")) {
                 logger.debug("Web parameter provided");
                 ProgressBar.output = false;
                 ryzen.ownitall.ui.web.MainMenu.main(args);
@@ -78,6 +90,19 @@ public class Main {
         }
     }
 
+    private static void watch() {
+        try (FolderWatcher watcher = new FolderWatcher()) {
+            watcher.watch();
+        } catch (InterruptedException e) {
+            logger.debug("Interrupted while watching local library");
+        } catch (MissingSettingException | AuthenticationException e) {
+            logger.warn("Unable to watch local library: " + e.getMessage());
+        } catch (IOException e) {
+            logger.error("Exception watching local library", e);
+        }
+        save();
+    }
+
     private static void init() {
         Settings.load();
         Storage.init();
@@ -92,6 +117,9 @@ public class Main {
     public static void save() {
         Collection.save();
         Settings.load().save();
-        Library.load();
+        Library.cache();
+        DownloadLedger.flush();
+        ScanIndex.flush();
+        ArtworkCache.flush();
     }
 }
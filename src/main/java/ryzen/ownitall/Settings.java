@@ -43,6 +43,13 @@ public class Settings extends ryzen.ownitall.util.Settings {
     /** Constant <code>interactive=true</code> */
     public static boolean interactive = true;
 
+    /**
+     * run blocking work (downloads, scans, library lookups) on virtual threads
+     * instead of fixed size thread pools
+     */
+    @Name("Use Virtual Threads")
+    public static boolean virtualThreads = true;
+
     /**
      * default file names (without extensions)
      */
@@ -67,10 +74,39 @@ public class Settings extends ryzen.ownitall.util.Settings {
     @Name("Songs Collection File Name")
     public static String songFile = "songs";
 
+    /**
+     * format of the collection files
+     * binary is smaller and faster to load, json is human readable
+     */
+    @Name("Storage Format")
+    @Options(options = { "json", "binary" })
+    public static String storageFormat = "json";
+
     /** Constant <code>cacheFolder</code> */
     @Name("Cache Folder")
     public static File cacheFolder = new File(".cache");
 
+    /**
+     * append collection changes to a journal which is compacted into the
+     * collection files, instead of only writing the collection files on save
+     */
+    @Name("Collection Journal")
+    public static boolean collectionJournal = false;
+    /** Constant <code>journalFile="journal"</code> */
+    @Name("Journal File Name")
+    public static String journalFile = "journal";
+    /**
+     * amount of journal entries before it is compacted
+     */
+    @Name("Journal Compaction Size")
+    public static int journalCompactSize = 1000;
+    /** Constant <code>downloadLedgerFile="downloads"</code> */
+    @Name("Download Ledger File Name")
+    public static String downloadLedgerFile = "downloads";
+    /** Constant <code>scanIndexFile="scans"</code> */
+    @Name("Scan Index File Name")
+    public static String scanIndexFile = "scans";
+
     ///
     ///
     /// METHODS
@@ -198,6 +234,47 @@ public class Settings extends ryzen.ownitall.util.Settings {
     @Options(options = { "LastFM", "MusicBrainz" })
     public static String libraryType = "";
 
+    /**
+     * maximum amount of library cache entries of each type kept in memory
+     * 0 to always read from the cache files
+     */
+    @Name("Library Memory Cache Size")
+    public static int libraryCacheSize = 10000;
+
+    /**
+     * which entry to evict when the library memory cache is full
+     * LRU: least recently used, FIFO: oldest
+     */
+    @Name("Library Memory Cache Policy")
+    @Options(options = { "LRU", "FIFO" })
+    public static String libraryCachePolicy = "LRU";
+    /**
+     * amount of cover images kept in memory while tagging
+     */
+    @Name("Artwork Memory Cache Size")
+    public static int artworkCacheSize = 64;
+
+    /**
+     * days a library search without result is not repeated
+     * 0 to always search again
+     */
+    @Name("Library Miss Cache Days")
+    public static int libraryMissDays = 7;
+
+    /**
+     * threads running async library lookups
+     * not used with virtual threads
+     */
+    @Name("Library Threads")
+    public static int libraryThreads = 4;
+
+    /**
+     * build album songs from the MusicBrainz release response
+     * recordings are only queried for tracks missing data
+     */
+    @Name("MusicBrainz Songs From Release")
+    public static boolean musicBrainzReleaseSongs = true;
+
     ///
     ///
     /// LASTFM
@@ -221,6 +298,12 @@ public class Settings extends ryzen.ownitall.util.Settings {
     @Group({ Download.class, Upload.class, YT_dl.class, SoulSeek.class })
     @Name("Local Library")
     public static File localFolder = null;
+    /**
+     * seconds without changes in the local library before watch mode reads
+     * the changed files
+     */
+    @Name("Watch Delay Seconds")
+    public static int watchDelaySeconds = 5;
     /**
      * format of music to download
      * current supported: "mp3", "flac", "wav"
@@ -247,6 +330,29 @@ public class Settings extends ryzen.ownitall.util.Settings {
      */
     public static int downloadThreads = 1;
 
+    /**
+     * amount of songs being looked up before downloading at once
+     * lookups wait on apis, not on bandwidth, so they do not take download
+     * threads
+     */
+    @Name("Download Resolve Threads")
+    public static int downloadResolveThreads = 4;
+
+    /**
+     * hours before a failed download is tried again, doubles with every failed
+     * run
+     * 0 to always try again
+     */
+    @Name("Download Retry Hours")
+    public static int downloadRetryHours = 24;
+    /**
+     * amount of songs downloaded by one download process
+     * saves starting the download tool for every song, 1 to disable
+     * only used if the download method supports it
+     */
+    @Name("Download Batch Size")
+    public static int downloadBatchSize = 1;
+
     ///
     ///
     /// YT_DL
@@ -1,23 +1,41 @@
 package ryzen.ownitall;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.function.Consumer;
 
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import ryzen.ownitall.classes.Album;
 import ryzen.ownitall.classes.Artist;
 import ryzen.ownitall.classes.LikedSongs;
 import ryzen.ownitall.classes.Playlist;
 import ryzen.ownitall.classes.Song;
+import ryzen.ownitall.method.ScanEntry;
+import ryzen.ownitall.method.download.DownloadJob;
+import ryzen.ownitall.method.download.DownloadLedger;
+import ryzen.ownitall.util.BoundedCache;
+import ryzen.ownitall.util.FileTools;
 import ryzen.ownitall.util.Input;
 import ryzen.ownitall.util.Logger;
+import ryzen.ownitall.util.MappedCache;
 
 /**
  * <p>
@@ -29,6 +47,8 @@ import ryzen.ownitall.util.Logger;
 public class Storage {
     private static final Logger logger = new Logger(Storage.class);
     private static final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private static BufferedWriter journalWriter;
+    private static int journalSize = 0;
 
     /**
      * <p>
@@ -55,13 +75,18 @@ public class Storage {
         String folderName = currentDate.format(DateTimeFormatter.ofPattern("dd-MM-yyyy"));
         File archiveFolder = new File(Settings.dataFolder, folderName);
         archiveFolder.mkdir();
+        closeJournal();
+        // the ledger is kept with the collection files, it is archived with them
+        DownloadLedger.close();
         for (File file : Settings.dataFolder.listFiles()) {
             if (file.isFile()) {
                 file.renameTo(new File(archiveFolder, file.getName()));
                 logger.debug("Renamed file: '" + file.getAbsolutePath() + "'");
             }
         }
-        Collection.clear();
+        // clearing is not a change to journal, the journal was archived
+        Collection.unload();
+        clearJournal();
         logger.debug("Successfully archived music library to: '" + archiveFolder.getAbsolutePath() + "'");
     }
 
@@ -118,17 +143,23 @@ public class Storage {
         }
         unarchiveFolder.delete();
         logger.debug("Deleted old archive folder: '" + unarchiveFolder.getAbsolutePath() + "'");
-        Collection.clear();
+        // the restored journal is replayed on load, clearing must not be added
+        Collection.unload();
         Collection.load();
         logger.debug("Successfully unarchived music library");
     }
 
     /**
-     * clear cache files
+     * clear cache files, including cached cover images
+     * caches must be closed before, see Library.clear
      */
     public static void clearCacheFiles() {
         for (File file : Settings.cacheFolder.listFiles()) {
-            file.delete();
+            if (file.isDirectory()) {
+                FileTools.deleteFolder(file);
+            } else {
+                file.delete();
+            }
             logger.debug("Deleted file: '" + file.getAbsolutePath() + "'");
         }
     }
@@ -139,6 +170,7 @@ public class Storage {
      * </p>
      */
     public static void clearCollectionFiles() {
+        clearJournal();
         for (File file : Settings.dataFolder.listFiles()) {
             if (file.isFile()) {
                 file.delete();
@@ -150,15 +182,25 @@ public class Storage {
     /**
      * save all albums
      *
-     * @param albums - linkedhashset of constructed Album
+     * @param albums - arraylist of constructed Album
      */
     public static void exportAlbums(ArrayList<Album> albums) {
-        if (albums == null || albums.isEmpty()) {
+        if (albums == null) {
+            return;
+        }
+        File albumFile = getFile(Settings.dataFolder, Settings.albumFile);
+        if (albums.isEmpty()) {
+            // remove stale file so cleared data is not loaded again
+            deleteFiles(Settings.dataFolder, Settings.albumFile);
             return;
         }
-        File albumFile = new File(Settings.dataFolder, Settings.albumFile + ".json");
         try {
-            objectMapper.writeValue(albumFile, albums);
+            if (isBinary()) {
+                BinaryStorage.exportAlbums(albumFile, albums);
+            } else {
+                exportArray(albumFile, albums);
+            }
+            deleteOtherFormat(Settings.dataFolder, Settings.albumFile);
             logger.debug("Saved albums to: '" + albumFile.getAbsolutePath() + "'");
         } catch (IOException e) {
             logger.error("exception saving albums", e);
@@ -167,37 +209,51 @@ public class Storage {
 
     /**
      * import saved albums
+     * each album is passed on as soon as it is parsed
      *
-     * @return - linkedhashset of constructed Album
+     * @param consumer - function to pass each constructed Album to
      */
-    public static ArrayList<Album> importAlbums() {
-        File albumFile = new File(Settings.dataFolder, Settings.albumFile + ".json");
-        if (!albumFile.exists()) {
-            return null;
+    public static void importAlbums(Consumer<Album> consumer) {
+        File albumFile = findFile(Settings.dataFolder, Settings.albumFile);
+        if (albumFile == null) {
+            return;
         }
         try {
-            return objectMapper.readValue(albumFile,
-                    new TypeReference<ArrayList<Album>>() {
-                    });
+            int count;
+            if (isBinaryFile(albumFile)) {
+                count = BinaryStorage.importAlbums(albumFile, consumer);
+            } else {
+                count = importArray(albumFile, Album.class, consumer);
+            }
+            logger.debug("loaded " + count + " albums from: '" + albumFile.getAbsolutePath() + "'");
         } catch (IOException e) {
             logger.error("exception importing albums", e);
             logger.warn("If this persists, delete the file: '" + albumFile.getAbsolutePath() + "'");
-            return null;
         }
     }
 
     /**
      * save all playlists
      *
-     * @param playlists - linkedhashset of constructed Playlist
+     * @param playlists - arraylist of constructed Playlist
      */
     public static void exportPlaylists(ArrayList<Playlist> playlists) {
-        if (playlists == null || playlists.isEmpty()) {
+        if (playlists == null) {
+            return;
+        }
+        File playlistFile = getFile(Settings.dataFolder, Settings.playlistFile);
+        if (playlists.isEmpty()) {
+            // remove stale file so cleared data is not loaded again
+            deleteFiles(Settings.dataFolder, Settings.playlistFile);
             return;
         }
-        File playlistFile = new File(Settings.dataFolder, Settings.playlistFile + ".json");
         try {
-            objectMapper.writeValue(playlistFile, playlists);
+            if (isBinary()) {
+                BinaryStorage.exportPlaylists(playlistFile, playlists);
+            } else {
+                exportArray(playlistFile, playlists);
+            }
+            deleteOtherFormat(Settings.dataFolder, Settings.playlistFile);
             logger.debug("Saved playlists to: '" + playlistFile.getAbsolutePath() + "'");
         } catch (IOException e) {
             logger.error("exception saving playlists", e);
@@ -206,38 +262,99 @@ public class Storage {
 
     /**
      * import all saved playlists
+     * each playlist is passed on as soon as it is parsed
      *
-     * @return - linkedhashset of constructed Playlist
+     * @param consumer - function to pass each constructed Playlist to
      */
-    public static ArrayList<Playlist> importPlaylists() {
-        File playlistFile = new File(Settings.dataFolder, Settings.playlistFile + ".json");
-        if (!playlistFile.exists()) {
-            return null;
+    public static void importPlaylists(Consumer<Playlist> consumer) {
+        File playlistFile = findFile(Settings.dataFolder, Settings.playlistFile);
+        if (playlistFile == null) {
+            return;
         }
         try {
-            return objectMapper.readValue(playlistFile,
-                    new TypeReference<ArrayList<Playlist>>() {
-                    });
-
+            int count;
+            if (isBinaryFile(playlistFile)) {
+                count = BinaryStorage.importPlaylists(playlistFile, consumer);
+            } else {
+                count = importArray(playlistFile, Playlist.class, consumer);
+            }
+            logger.debug("loaded " + count + " playlists from: '" + playlistFile.getAbsolutePath() + "'");
         } catch (IOException e) {
             logger.error("exception importing playlists", e);
             logger.warn("If this persists, delete the file: '" + playlistFile.getAbsolutePath() + "'");
-            return null;
         }
     }
 
+    /**
+     * stream a json array to file, one element at a time
+     * written to a temporary file first so a failed write keeps the old file
+     *
+     * @param <T>    - type of elements
+     * @param file   - file to write to
+     * @param values - elements to write
+     * @throws IOException - exception writing file
+     */
+    private static <T> void exportArray(File file, Iterable<T> values) throws IOException {
+        File tempFile = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(tempFile, JsonEncoding.UTF8)) {
+            generator.writeStartArray();
+            for (T value : values) {
+                objectMapper.writeValue(generator, value);
+            }
+            generator.writeEndArray();
+        } catch (IOException e) {
+            tempFile.delete();
+            throw e;
+        }
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * stream a json array from file, one element at a time
+     *
+     * @param <T>      - type of elements
+     * @param file     - file to read from
+     * @param type     - class of elements
+     * @param consumer - function to pass each element to
+     * @return - amount of elements read
+     * @throws IOException - exception reading or parsing file
+     */
+    private static <T> int importArray(File file, Class<T> type, Consumer<T> consumer) throws IOException {
+        int count = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(file)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("expected json array in: '" + file.getAbsolutePath() + "'");
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                consumer.accept(objectMapper.readValue(parser, type));
+                count++;
+            }
+        }
+        return count;
+    }
+
     /**
      * save all liked songs
      *
      * @param likedSongs - constructed LikedSongs
      */
     public static void exportLikedSongs(LikedSongs likedSongs) {
-        if (likedSongs == null || likedSongs.isEmpty()) {
+        if (likedSongs == null) {
+            return;
+        }
+        File likedSongFile = getFile(Settings.dataFolder, Settings.likedSongFile);
+        if (likedSongs.isEmpty()) {
+            // remove stale file so cleared data is not loaded again
+            deleteFiles(Settings.dataFolder, Settings.likedSongFile);
             return;
         }
-        File likedSongFile = new File(Settings.dataFolder, Settings.likedSongFile + ".json");
         try {
-            objectMapper.writeValue(likedSongFile, likedSongs);
+            if (isBinary()) {
+                BinaryStorage.exportLikedSongs(likedSongFile, likedSongs);
+            } else {
+                objectMapper.writeValue(likedSongFile, likedSongs);
+            }
+            deleteOtherFormat(Settings.dataFolder, Settings.likedSongFile);
             logger.debug("Saved liked songs to: '" + likedSongFile.getAbsolutePath() + "'");
         } catch (IOException e) {
             logger.error("exception saving liked songs", e);
@@ -250,11 +367,14 @@ public class Storage {
      * @return - constructed LikedSongs
      */
     public static LikedSongs importLikedSongs() {
-        File likedSongFile = new File(Settings.dataFolder, Settings.likedSongFile + ".json");
-        if (!likedSongFile.exists()) {
+        File likedSongFile = findFile(Settings.dataFolder, Settings.likedSongFile);
+        if (likedSongFile == null) {
             return null;
         }
         try {
+            if (isBinaryFile(likedSongFile)) {
+                return BinaryStorage.importLikedSongs(likedSongFile);
+            }
             return objectMapper.readValue(likedSongFile,
                     LikedSongs.class);
         } catch (IOException e) {
@@ -265,130 +385,336 @@ public class Storage {
     }
 
     /**
-     * <p>
-     * cacheAlbums.
-     * </p>
+     * append a collection change to the journal
      *
-     * @param albums a {@link java.util.LinkedHashMap} object
-     * @return a {@link java.util.LinkedHashMap} object
+     * @param operation - operation done, ex: "add"
+     * @param type      - type of collection entry, ex: "album"
+     * @param target    - content id of the entry the operation is done on, 0 if
+     *                  none
+     * @param value     - value of the operation (album, song, ...), null if none
      */
-    public static LinkedHashMap<String, Album> cacheAlbums(LinkedHashMap<String, Album> albums) {
-        File albumFile = new File(Settings.cacheFolder, Settings.albumFile + ".json");
-        LinkedHashMap<String, Album> cachedAlbums = new LinkedHashMap<>();
-        if (albumFile.exists()) {
-            try {
-                cachedAlbums = objectMapper.readValue(albumFile,
-                        new TypeReference<LinkedHashMap<String, Album>>() {
-                        });
-                logger.debug("loaded cached albums from: '" + albumFile.getAbsolutePath() + "'");
-            } catch (IOException e) {
-                logger.error("exception importing cached albums", e);
-                logger.warn("If this persists, delete the file: '" + albumFile.getAbsolutePath() + "'");
-            }
+    public static synchronized void appendJournal(String operation, String type, long target, Object value) {
+        if (operation == null || type == null) {
+            logger.debug("null operation or type provided in appendJournal");
+            return;
+        }
+        File journalFile = new File(Settings.dataFolder, Settings.journalFile + ".jsonl");
+        ObjectNode entry = objectMapper.createObjectNode();
+        entry.put("op", operation);
+        entry.put("type", type);
+        entry.put("target", target);
+        if (value != null) {
+            entry.set("value", objectMapper.valueToTree(value));
         }
-        cachedAlbums.putAll(albums);
         try {
-            objectMapper.writeValue(albumFile, cachedAlbums);
-            logger.debug("saved cached albums to: '" + albumFile.getAbsolutePath() + "'");
+            if (journalWriter == null) {
+                journalWriter = new BufferedWriter(new FileWriter(journalFile, true));
+            }
+            journalWriter.write(objectMapper.writeValueAsString(entry));
+            journalWriter.newLine();
+            journalWriter.flush();
+            journalSize++;
         } catch (IOException e) {
-            logger.error("exception exporting cached albums", e);
+            logger.error("exception appending to journal", e);
         }
-        return cachedAlbums;
     }
 
     /**
-     * <p>
-     * cacheArtists.
-     * </p>
+     * import all journal entries
      *
-     * @param artists a {@link java.util.LinkedHashMap} object
-     * @return a {@link java.util.LinkedHashMap} object
+     * @return - arraylist of journal entries, in order
      */
-    public static LinkedHashMap<String, Artist> cacheArtists(LinkedHashMap<String, Artist> artists) {
-        File artistFile = new File(Settings.cacheFolder, Settings.artistFile + ".json");
-        LinkedHashMap<String, Artist> cachedArtists = new LinkedHashMap<>();
-        if (artistFile.exists()) {
-            try {
-                cachedArtists = objectMapper.readValue(artistFile,
-                        new TypeReference<LinkedHashMap<String, Artist>>() {
-                        });
-                logger.debug("loaded cached artists from: " + artistFile.getAbsolutePath());
-            } catch (IOException e) {
-                logger.error("exception importing cached artists", e);
-                logger.warn("If this persists, delete the file: '" + artistFile.getAbsolutePath() + "'");
-            }
+    public static synchronized ArrayList<JsonNode> importJournal() {
+        ArrayList<JsonNode> entries = new ArrayList<>();
+        File journalFile = new File(Settings.dataFolder, Settings.journalFile + ".jsonl");
+        if (!journalFile.exists()) {
+            return entries;
         }
-        cachedArtists.putAll(artists);
-        try {
-            objectMapper.writeValue(artistFile, cachedArtists);
-            logger.debug("saved cached artists to: '" + artistFile.getAbsolutePath() + "'");
+        try (BufferedReader reader = new BufferedReader(new FileReader(journalFile))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    entries.add(objectMapper.readTree(line));
+                } catch (IOException e) {
+                    // a crash while appending can leave the last line incomplete
+                    logger.warn("Skipping corrupt journal entry: '" + line + "'");
+                }
+            }
+            logger.debug("loaded " + entries.size() + " journal entries from: '" + journalFile.getAbsolutePath()
+                    + "'");
         } catch (IOException e) {
-            logger.error("exception exporting cached artists", e);
+            logger.error("exception importing journal", e);
+            logger.warn("If this persists, delete the file: '" + journalFile.getAbsolutePath() + "'");
         }
-        return cachedArtists;
+        journalSize = entries.size();
+        return entries;
     }
 
     /**
-     * <p>
-     * cacheSongs.
-     * </p>
+     * convert the value of a journal entry
      *
-     * @param songs a {@link java.util.LinkedHashMap} object
-     * @return a {@link java.util.LinkedHashMap} object
+     * @param <T>   - type to convert to
+     * @param entry - journal entry
+     * @param type  - class to convert to
+     * @return - converted value or null
      */
-    public static LinkedHashMap<String, Song> cacheSongs(LinkedHashMap<String, Song> songs) {
-        File songFile = new File(Settings.cacheFolder, Settings.songFile + ".json");
-        LinkedHashMap<String, Song> cachedSongs = new LinkedHashMap<>();
-        if (songFile.exists()) {
-            try {
-                cachedSongs = objectMapper.readValue(songFile,
-                        new TypeReference<LinkedHashMap<String, Song>>() {
-                        });
-                logger.debug("loaded cached songs from: '" + songFile.getAbsolutePath() + "'");
-            } catch (IOException e) {
-                logger.error("exception importing cached songs", e);
-                logger.warn("If this persists, delete the file: '" + songFile.getAbsolutePath() + "'");
-            }
+    public static <T> T getJournalValue(JsonNode entry, Class<T> type) {
+        if (entry == null || !entry.has("value")) {
+            logger.debug("null entry or entry without value provided in getJournalValue");
+            return null;
         }
-        cachedSongs.putAll(songs);
         try {
-            objectMapper.writeValue(songFile, cachedSongs);
-            logger.debug("saved cached songs to: '" + songFile.getAbsolutePath() + "'");
+            return objectMapper.treeToValue(entry.get("value"), type);
         } catch (IOException e) {
-            logger.error("exception exporting cached songs", e);
+            logger.error("exception converting journal value", e);
+            return null;
         }
-        return cachedSongs;
     }
 
     /**
-     * <p>
-     * cacheIds.
-     * </p>
+     * get amount of entries in the journal
      *
-     * @param ids a {@link java.util.LinkedHashMap} object
-     * @return a {@link java.util.LinkedHashMap} object
+     * @return - int of journal entries
+     */
+    public static int getJournalSize() {
+        return journalSize;
+    }
+
+    /**
+     * remove all journal entries
+     * done after the collection files are written (compaction)
      */
-    public static LinkedHashMap<String, String> cacheIds(LinkedHashMap<String, String> ids) {
-        File idFile = new File(Settings.cacheFolder, "ids.json");
-        LinkedHashMap<String, String> cachedIds = new LinkedHashMap<>();
-        if (idFile.exists()) {
+    public static synchronized void clearJournal() {
+        closeJournal();
+        File journalFile = new File(Settings.dataFolder, Settings.journalFile + ".jsonl");
+        if (journalFile.exists()) {
+            journalFile.delete();
+            logger.debug("Cleared journal: '" + journalFile.getAbsolutePath() + "'");
+        }
+        journalSize = 0;
+    }
+
+    /**
+     * close the journal file, it is re-opened on the next append
+     */
+    private static synchronized void closeJournal() {
+        if (journalWriter != null) {
             try {
-                cachedIds = objectMapper.readValue(idFile,
-                        new TypeReference<LinkedHashMap<String, String>>() {
-                        });
-                logger.debug("loaded cached ids from: '" + idFile.getAbsolutePath() + "'");
+                journalWriter.close();
             } catch (IOException e) {
-                logger.error("exception importing cached ids", e);
-                logger.warn("If this persists, delete the file: '" + idFile.getAbsolutePath() + "'");
+                logger.error("exception closing journal", e);
             }
+            journalWriter = null;
         }
-        cachedIds.putAll(ids);
+    }
+
+    /**
+     * open the persistent album cache
+     *
+     * @return - constructed MappedCache of albums
+     */
+    public static MappedCache<Album> openAlbumCache() {
+        return openCache(Settings.albumFile, Album.class, BinaryStorage::importAlbumCache);
+    }
+
+    /**
+     * open the persistent artist cache
+     *
+     * @return - constructed MappedCache of artists
+     */
+    public static MappedCache<Artist> openArtistCache() {
+        return openCache(Settings.artistFile, Artist.class, BinaryStorage::importArtistCache);
+    }
+
+    /**
+     * open the persistent song cache
+     *
+     * @return - constructed MappedCache of songs
+     */
+    public static MappedCache<Song> openSongCache() {
+        return openCache(Settings.songFile, Song.class, BinaryStorage::importSongCache);
+    }
+
+    /**
+     * open the persistent id cache
+     *
+     * @return - constructed MappedCache of ids
+     */
+    public static MappedCache<String> openIdCache() {
+        return openCache("ids", String.class, BinaryStorage::importIdCache);
+    }
+
+    /**
+     * open the persistent cache of library searches without result
+     *
+     * @return - constructed MappedCache of expiry times
+     */
+    public static MappedCache<Long> openMissCache() {
+        return openCache("misses", Long.class, null);
+    }
+
+    /**
+     * open the download ledger, kept with the collection files
+     *
+     * @return - constructed MappedCache
+     */
+    public static MappedCache<DownloadJob> openDownloadLedger() {
+        return openCache(Settings.dataFolder, Settings.downloadLedgerFile, DownloadJob.class, null);
+    }
+
+    /**
+     * open the index of scanned local song files
+     *
+     * @return - constructed MappedCache
+     */
+    public static MappedCache<ScanEntry> openScanIndex() {
+        return openCache(Settings.scanIndexFile, ScanEntry.class, null);
+    }
+
+    /**
+     * open the index of cached cover images, mapping their uri to the hash of
+     * their content
+     *
+     * @return - constructed MappedCache
+     */
+    public static MappedCache<String> openArtworkIndex() {
+        return openCache("artwork", String.class, null);
+    }
+
+    @FunctionalInterface
+    private interface CacheImporter<T> {
+        LinkedHashMap<String, T> importCache(File file) throws IOException;
+    }
+
+    /**
+     * open a persistent cache, values are stored as json
+     * a cache file in the old (json or binary) format is imported once
+     *
+     * @param <T>            - type of cached values
+     * @param name           - cache file name without extension
+     * @param type           - class of cached values
+     * @param binaryImporter - function to read an old binary cache file, null if
+     *                       none
+     * @return - constructed MappedCache, memory only if the file can not be
+     *         opened
+     */
+    private static <T> MappedCache<T> openCache(String name, Class<T> type, CacheImporter<T> binaryImporter) {
+        return openCache(Settings.cacheFolder, name, type, binaryImporter);
+    }
+
+    private static <T> MappedCache<T> openCache(File folder, String name, Class<T> type,
+            CacheImporter<T> binaryImporter) {
+        File cacheFile = new File(folder, name + ".cache");
+        boolean created = !cacheFile.exists();
+        BoundedCache<T> memoryCache = new BoundedCache<>(Settings.libraryCacheSize,
+                Settings.libraryCachePolicy.equals("LRU"));
+        MappedCache<T> cache;
         try {
-            objectMapper.writeValue(idFile, cachedIds);
-            logger.debug("saved cached ids to: '" + idFile.getAbsolutePath() + "'");
+            cache = new MappedCache<>(cacheFile, objectMapper::writeValueAsBytes,
+                    bytes -> objectMapper.readValue(bytes, type), memoryCache);
         } catch (IOException e) {
-            logger.error("exception exporting cached ids", e);
+            logger.error("exception opening cache: '" + cacheFile.getAbsolutePath()
+                    + "', falling back to memory only", e);
+            return new MappedCache<>(memoryCache);
+        }
+        File oldCacheFile = findFile(folder, name);
+        if (created && oldCacheFile != null) {
+            try {
+                LinkedHashMap<String, T> oldCache;
+                if (isBinaryFile(oldCacheFile)) {
+                    if (binaryImporter == null) {
+                        throw new IOException("no binary importer for cache '" + name + "'");
+                    }
+                    oldCache = binaryImporter.importCache(oldCacheFile);
+                } else {
+                    oldCache = objectMapper.readValue(oldCacheFile, objectMapper.getTypeFactory()
+                            .constructMapType(LinkedHashMap.class, String.class, type));
+                }
+                for (String key : oldCache.keySet()) {
+                    cache.put(key, oldCache.get(key));
+                }
+                deleteFiles(folder, name);
+                logger.debug("imported " + oldCache.size() + " cache entries from: '"
+                        + oldCacheFile.getAbsolutePath() + "'");
+            } catch (IOException e) {
+                logger.error("exception importing old cache: '" + oldCacheFile.getAbsolutePath() + "'", e);
+            }
         }
-        return cachedIds;
+        return cache;
+    }
+
+    /**
+     * convert all collection files to the storage format set in settings
+     */
+    public static void convertFormat() {
+        // collection files are read in either format and written in the set one
+        Collection.save();
+        logger.debug("Converted collection files to '" + Settings.storageFormat + "'");
+    }
+
+    private static boolean isBinary() {
+        return Settings.storageFormat.equals("binary");
+    }
+
+    private static boolean isBinaryFile(File file) {
+        return file.getName().endsWith(".bin");
+    }
+
+    /**
+     * get file to write to in the current storage format
+     *
+     * @param folder - folder of the file
+     * @param name   - file name without extension
+     * @return - constructed File
+     */
+    private static File getFile(File folder, String name) {
+        if (isBinary()) {
+            return new File(folder, name + ".bin");
+        }
+        return new File(folder, name + ".json");
+    }
+
+    /**
+     * get existing file to read from
+     * falls back to the other storage format so files are converted on the next
+     * write
+     *
+     * @param folder - folder of the file
+     * @param name   - file name without extension
+     * @return - existing File or null
+     */
+    private static File findFile(File folder, String name) {
+        File file = getFile(folder, name);
+        if (file.exists()) {
+            return file;
+        }
+        File otherFile = getOtherFile(folder, name);
+        if (otherFile.exists()) {
+            return otherFile;
+        }
+        return null;
+    }
+
+    private static File getOtherFile(File folder, String name) {
+        if (isBinary()) {
+            return new File(folder, name + ".json");
+        }
+        return new File(folder, name + ".bin");
+    }
+
+    private static void deleteOtherFormat(File folder, String name) {
+        File otherFile = getOtherFile(folder, name);
+        if (otherFile.exists()) {
+            otherFile.delete();
+            logger.debug("Deleted converted file: '" + otherFile.getAbsolutePath() + "'");
+        }
+    }
+
+    private static void deleteFiles(File folder, String name) {
+        getFile(folder, name).delete();
+        getOtherFile(folder, name).delete();
     }
-}
\ No newline at end of file
+}
@@ -2,11 +2,13 @@ package ryzen.ownitall.classes;
 
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import ryzen.ownitall.util.HashIndex;
 import ryzen.ownitall.util.Logger;
 
 /**
@@ -149,7 +151,7 @@ public class Album extends Playlist {
             return null;
         }
         for (Artist thisArtist : this.getArtists()) {
-            if (thisArtist.equals(artist)) {
+            if (thisArtist.matches(artist)) {
                 return thisArtist;
             }
         }
@@ -169,6 +171,34 @@ public class Album extends Playlist {
         return this.artists.get(0);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * calculated from name and main artist
+     */
+    @Override
+    protected long calculateContentId() {
+        String mainArtist = null;
+        // because of the playlist overwrite
+        if (this.artists != null && !this.artists.isEmpty()) {
+            mainArtist = this.getMainArtist().getName();
+        }
+        return HashIndex.contentId(this.getName(), mainArtist);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * also indexed by plain album name
+     */
+    @JsonIgnore
+    @Override
+    public LinkedHashSet<String> getIndexKeys() {
+        LinkedHashSet<String> keys = super.getIndexKeys();
+        keys.add(HashIndex.fuzzyKey("album", this.getName()));
+        return keys;
+    }
+
     /** {@inheritDoc} */
     @JsonIgnore
     @Override
@@ -180,33 +210,36 @@ public class Album extends Playlist {
         return output;
     }
 
-    /** {@inheritDoc} */
-    @JsonIgnore
+    /**
+     * {@inheritDoc}
+     *
+     * albums also match on id's, shared artists and songs
+     */
     @Override
-    public boolean equals(Object object) {
-        if (this == object)
+    public boolean matches(Playlist playlist) {
+        if (this == playlist)
             return true;
-        if (!(object instanceof Album)) {
+        if (!(playlist instanceof Album)) {
             return false;
         }
-        Album album = (Album) object;
-        if (super.equals(object)) {
+        Album album = (Album) playlist;
+        if (super.matches(album)) {
             return true;
         }
         for (String key : album.getIds().keySet()) {
-            if (this.getIds().containsValue(key)) {
+            if (album.getId(key).equals(this.getId(key))) {
                 return true;
             }
         }
         if (this.getName().equalsIgnoreCase(album.getName())) {
             // album with matching name and atleast one artist
             for (Artist artist : this.getArtists()) {
-                if (artist.equals(album.getArtist(artist))) {
+                if (artist.matches(album.getArtist(artist))) {
                     return true;
                 }
             }
         }
-        if (album.getSongs().containsAll(this.getSongs()) || this.getSongs().containsAll(album.getSongs())) {
+        if (this.containsAll(album) || album.containsAll(this)) {
             return true;
         }
         // merges extended versions of albums
@@ -222,4 +255,19 @@ public class Album extends Playlist {
         }
         return false;
     }
+
+    /**
+     * check if every song of the album is in this album
+     *
+     * @param album - album to get songs from
+     * @return - true if all songs are contained
+     */
+    private boolean containsAll(Album album) {
+        for (Song song : album.getSongs()) {
+            if (!this.contains(song)) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
@@ -8,6 +8,7 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import ryzen.ownitall.util.HashIndex;
 import ryzen.ownitall.util.Logger;
 
 /**
@@ -22,6 +23,7 @@ public class Artist {
     private String name;
     private URI coverImage;
     private LinkedHashMap<String, String> ids;
+    private long contentId;
 
     /**
      * default artist constructor
@@ -181,6 +183,29 @@ public class Artist {
         return this.coverImage;
     }
 
+    /**
+     * get stable content id of artist
+     * calculated on first use from the name and persisted afterwards
+     *
+     * @return - long content id
+     */
+    public long getContentId() {
+        if (this.contentId == 0) {
+            this.contentId = HashIndex.contentId(this.name);
+        }
+        return this.contentId;
+    }
+
+    /**
+     * set content id of artist
+     * used for json importing
+     *
+     * @param contentId - long content id
+     */
+    public void setContentId(long contentId) {
+        this.contentId = contentId;
+    }
+
     /** {@inheritDoc} */
     @JsonIgnore
     @Override
@@ -188,19 +213,22 @@ public class Artist {
         return this.name.toString().trim();
     }
 
-    /** {@inheritDoc} */
-    @JsonIgnore
-    @Override
-    public boolean equals(Object object) {
-        if (this == object)
+    /**
+     * check if artist is (likely) the same artist
+     * used to merge artists from different sources
+     *
+     * @param artist - artist to compare to
+     * @return - true if matching
+     */
+    public boolean matches(Artist artist) {
+        if (this == artist)
             return true;
-        if (!(object instanceof Artist)) {
+        if (artist == null) {
             return false;
         }
-        Artist artist = (Artist) object;
         // only valid if library used
         for (String key : artist.getIds().keySet()) {
-            if (this.getIds().containsValue(key)) {
+            if (artist.getId(key).equals(this.getId(key))) {
                 return true;
             }
         }
@@ -209,4 +237,24 @@ public class Artist {
         }
         return false;
     }
+
+    /** {@inheritDoc} */
+    @JsonIgnore
+    @Override
+    public boolean equals(Object object) {
+        if (this == object)
+            return true;
+        if (object == null || this.getClass() != object.getClass()) {
+            return false;
+        }
+        Artist artist = (Artist) object;
+        return this.getContentId() == artist.getContentId();
+    }
+
+    /** {@inheritDoc} */
+    @JsonIgnore
+    @Override
+    public int hashCode() {
+        return Long.hashCode(this.getContentId());
+    }
 }
@@ -5,11 +5,13 @@ import java.net.URISyntaxException;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import ryzen.ownitall.util.HashIndex;
 import ryzen.ownitall.util.Logger;
 
 /**
@@ -26,6 +28,9 @@ public class Playlist {
 
     private ArrayList<Song> songs;
     private LinkedHashMap<String, String> ids;
+    private long contentId;
+    // not serialized, rebuilt through addSong
+    private HashIndex<Song> songIndex = new HashIndex<>(Song::getIndexKeys, Song::matches);
 
     /**
      * Default playlist constructor
@@ -173,8 +178,21 @@ public class Playlist {
         Song foundSong = this.getSong(song);
         if (foundSong != null) {
             foundSong.merge(song);
+            this.songIndex.reindex(foundSong);
         } else {
+            // content ids are kept when renaming, a new song can get the id of
+            // a renamed one
+            long contentId = song.getContentId();
+            while (contentId == 0 || this.getSong(contentId) != null) {
+                contentId++;
+            }
+            if (contentId != song.getContentId()) {
+                logger.debug(this.toString() + ": content id of '" + song.getName() + "' already taken, using: "
+                        + contentId);
+                song.setContentId(contentId);
+            }
             this.songs.add(song);
+            this.songIndex.add(song);
         }
     }
 
@@ -204,7 +222,36 @@ public class Playlist {
             logger.debug(this.toString() + ": null song provided in removeSong");
             return;
         }
-        this.songs.remove(song);
+        // prefer the exact instance when it is part of the playlist
+        Song foundSong = this.songIndex.contains(song) ? song : this.getSong(song);
+        if (foundSong == null) {
+            return;
+        }
+        this.songs.removeIf(thisSong -> thisSong == foundSong);
+        this.songIndex.remove(foundSong);
+    }
+
+    /**
+     * remove all songs from playlist
+     */
+    public void clearSongs() {
+        this.songs.clear();
+        this.songIndex.clear();
+    }
+
+    /**
+     * update the index of a song after it was modified (renamed, ...)
+     *
+     * @param song - song in playlist which was modified
+     */
+    public void reindexSong(Song song) {
+        if (song == null) {
+            logger.debug(this.toString() + ": null song provided in reindexSong");
+            return;
+        }
+        if (this.songIndex.contains(song)) {
+            this.songIndex.reindex(song);
+        }
     }
 
     /**
@@ -218,21 +265,21 @@ public class Playlist {
             logger.debug(this.toString() + ": null song provided in getSong");
             return null;
         }
-        for (Song thisSong : this.songs) {
-            if (thisSong.equals(song)) {
-                return thisSong;
-            }
-        }
-        return null;
+        return this.songIndex.find(song);
     }
 
-    public Song getSong(int songHash) {
-        for (Song song : this.getSongs()) {
-            if (song.hashCode() == songHash) {
-                return song;
-            }
+    /**
+     * get song in playlist by its content id
+     *
+     * @param contentId - content id of song
+     * @return - constructed found song or null
+     */
+    public Song getSong(long contentId) {
+        ArrayList<Song> songs = this.songIndex.get(HashIndex.exactKey("contentId", String.valueOf(contentId)));
+        if (songs.isEmpty()) {
+            return null;
         }
-        return null;
+        return songs.get(0);
     }
 
     /**
@@ -276,7 +323,7 @@ public class Playlist {
             logger.debug(this.toString() + ": null song provided in contains");
             return false;
         }
-        return this.songs.contains(song);
+        return this.getSong(song) != null;
     }
 
     /**
@@ -342,6 +389,58 @@ public class Playlist {
         return this.ids;
     }
 
+    /**
+     * get stable content id of playlist
+     * calculated on first use and persisted afterwards, so renaming does not
+     * change it
+     *
+     * @return - long content id
+     */
+    public long getContentId() {
+        if (this.contentId == 0) {
+            this.contentId = this.calculateContentId();
+        }
+        return this.contentId;
+    }
+
+    /**
+     * set content id of playlist
+     * used for json importing
+     *
+     * @param contentId - long content id
+     */
+    public void setContentId(long contentId) {
+        this.contentId = contentId;
+    }
+
+    /**
+     * calculate content id from playlist details
+     *
+     * @return - long content id
+     */
+    protected long calculateContentId() {
+        return HashIndex.contentId(this.name);
+    }
+
+    /**
+     * get keys this playlist is indexed under
+     * see HashIndex
+     *
+     * @return - linkedhashset of index keys
+     */
+    @JsonIgnore
+    public LinkedHashSet<String> getIndexKeys() {
+        LinkedHashSet<String> keys = new LinkedHashSet<>();
+        keys.add(HashIndex.exactKey("contentId", String.valueOf(this.getContentId())));
+        for (String key : this.ids.keySet()) {
+            keys.add(HashIndex.exactKey(key, this.ids.get(key)));
+        }
+        if (this.name != null) {
+            keys.add(HashIndex.fuzzyKey("name", this.toString()));
+        }
+        return keys;
+    }
+
     /** {@inheritDoc} */
     @JsonIgnore
     @Override
@@ -349,19 +448,42 @@ public class Playlist {
         return this.name.toString().trim();
     }
 
+    /**
+     * check if playlist is (likely) the same playlist
+     * used to merge playlists from different sources
+     *
+     * @param playlist - playlist to compare to
+     * @return - true if matching
+     */
+    public boolean matches(Playlist playlist) {
+        if (this == playlist)
+            return true;
+        if (playlist == null) {
+            return false;
+        }
+        if (this.toString().equalsIgnoreCase(playlist.toString())) {
+            return true;
+        }
+        return false;
+    }
+
     /** {@inheritDoc} */
     @JsonIgnore
     @Override
     public boolean equals(Object object) {
         if (this == object)
             return true;
-        if (!(object instanceof Playlist)) {
+        if (object == null || this.getClass() != object.getClass()) {
             return false;
         }
         Playlist playlist = (Playlist) object;
-        if (this.toString().equalsIgnoreCase(playlist.toString())) {
-            return true;
-        }
-        return false;
+        return this.getContentId() == playlist.getContentId();
+    }
+
+    /** {@inheritDoc} */
+    @JsonIgnore
+    @Override
+    public int hashCode() {
+        return Long.hashCode(this.getContentId());
     }
 }
@@ -6,11 +6,13 @@ import java.time.Duration;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import ryzen.ownitall.util.HashIndex;
 import ryzen.ownitall.util.Logger;
 
 /**
@@ -29,6 +31,7 @@ public class Song {
     private String albumName;
     private URI coverImage;
     private LinkedHashMap<String, String> ids;
+    private long contentId;
 
     /**
      * default song constructor
@@ -178,7 +181,7 @@ public class Song {
             return null;
         }
         for (Artist thisArtist : this.artists) {
-            if (thisArtist.equals(artist)) {
+            if (thisArtist.matches(artist)) {
                 return thisArtist;
             }
         }
@@ -349,6 +352,55 @@ public class Song {
         return this.coverImage;
     }
 
+    /**
+     * get stable content id of song
+     * calculated on first use from name, main artist and duration (10 second
+     * buckets) and persisted afterwards, so renaming does not change it
+     *
+     * @return - long content id
+     */
+    public long getContentId() {
+        if (this.contentId == 0) {
+            String mainArtist = null;
+            if (this.getMainArtist() != null) {
+                mainArtist = this.getMainArtist().getName();
+            }
+            this.contentId = HashIndex.contentId(this.name, mainArtist,
+                    String.valueOf(this.getDuration().toSeconds() / 10));
+        }
+        return this.contentId;
+    }
+
+    /**
+     * set content id of song
+     * used for json importing
+     *
+     * @param contentId - long content id
+     */
+    public void setContentId(long contentId) {
+        this.contentId = contentId;
+    }
+
+    /**
+     * get keys this song is indexed under
+     * see HashIndex
+     *
+     * @return - linkedhashset of index keys
+     */
+    @JsonIgnore
+    public LinkedHashSet<String> getIndexKeys() {
+        LinkedHashSet<String> keys = new LinkedHashSet<>();
+        keys.add(HashIndex.exactKey("contentId", String.valueOf(this.getContentId())));
+        for (String key : this.ids.keySet()) {
+            keys.add(HashIndex.exactKey(key, this.ids.get(key)));
+        }
+        if (this.name != null) {
+            keys.add(HashIndex.fuzzyKey("name", this.toString()));
+            keys.add(HashIndex.fuzzyKey("title", this.name));
+        }
+        return keys;
+    }
+
     /** {@inheritDoc} */
     @JsonIgnore
     @Override
@@ -360,19 +412,22 @@ public class Song {
         return output;
     }
 
-    /** {@inheritDoc} */
-    @JsonIgnore
-    @Override
-    public boolean equals(Object object) {
-        if (this == object)
+    /**
+     * check if song is (likely) the same song
+     * used to merge songs from different sources
+     *
+     * @param song - song to compare to
+     * @return - true if matching
+     */
+    public boolean matches(Song song) {
+        if (this == song)
             return true;
-        if (!(object instanceof Song)) {
+        if (song == null) {
             return false;
         }
-        Song song = (Song) object;
         // only valid if library used
         for (String key : song.getIds().keySet()) {
-            if (this.getIds().containsValue(key)) {
+            if (song.getId(key).equals(this.getId(key))) {
                 return true;
             }
         }
@@ -381,7 +436,7 @@ public class Song {
         }
         if (song.getName().toLowerCase().contains(this.getName().toLowerCase())) {
             if (this.getMainArtist() != null && song.getMainArtist() != null
-                    && this.getMainArtist().equals(song.getMainArtist())) {
+                    && this.getMainArtist().matches(song.getMainArtist())) {
                 if (this.getAlbumName() != null && this.getAlbumName().equalsIgnoreCase(song.getAlbumName())) {
                     return true;
                 }
@@ -392,4 +447,24 @@ public class Song {
         }
         return false;
     }
+
+    /** {@inheritDoc} */
+    @JsonIgnore
+    @Override
+    public boolean equals(Object object) {
+        if (this == object)
+            return true;
+        if (object == null || this.getClass() != object.getClass()) {
+            return false;
+        }
+        Song song = (Song) object;
+        return this.getContentId() == song.getContentId();
+    }
+
+    /** {@inheritDoc} */
+    @JsonIgnore
+    @Override
+    public int hashCode() {
+        return Long.hashCode(this.getContentId());
+    }
 }
@@ -17,6 +17,7 @@ import ryzen.ownitall.classes.Artist;
 import ryzen.ownitall.classes.Song;
 import ryzen.ownitall.util.Logger;
 import ryzen.ownitall.util.MusicTools;
+import ryzen.ownitall.util.RateLimiter;
 import ryzen.ownitall.util.exceptions.MissingSettingException;
 
 /**
@@ -43,7 +44,7 @@ public class LastFM extends Library {
             logger.debug("Empty LastFM credentials");
             throw new MissingSettingException(LastFM.class);
         }
-        this.queryDiff = 10;
+        RateLimiter.registerIfAbsent(URI.create(baseUrl).getHost(), 5, 5);
     }
 
     /**
@@ -73,7 +74,10 @@ public class LastFM extends Library {
         if (albums.containsKey(params.toString())) {
             return albums.get(params.toString());
         }
-        JsonNode response = this.query("album.getInfo", this.queryBuilder(params));
+        JsonNode response = null;
+        if (!this.isMiss(params.toString())) {
+            response = this.query("album.getInfo", this.queryBuilder(params));
+        }
         if (response != null) {
             JsonNode albumNode = response.path("album");
             if (!albumNode.isMissingNode()) {
@@ -133,6 +137,7 @@ public class LastFM extends Library {
                 }
             } else {
                 logger.debug(album.toString() + ": album.getInfo missing album");
+                this.addMiss(params.toString());
             }
         }
         if (!album.getName().equals(MusicTools.removeBrackets(album.getName()))) {
@@ -167,7 +172,10 @@ public class LastFM extends Library {
         if (songs.containsKey(params.toString())) {
             return songs.get(params.toString());
         }
-        JsonNode response = this.query("track.getInfo", this.queryBuilder(params));
+        JsonNode response = null;
+        if (!this.isMiss(params.toString())) {
+            response = this.query("track.getInfo", this.queryBuilder(params));
+        }
         if (response != null) {
             JsonNode trackNode = response.path("track");
             if (!trackNode.isMissingNode()) {
@@ -211,6 +219,7 @@ public class LastFM extends Library {
                 return song;
             } else {
                 logger.debug(song.toString() + ": track.getInfo missing track");
+                this.addMiss(params.toString());
             }
         }
         if (!song.getName().equals(MusicTools.removeBrackets(song.getName()))) {
@@ -238,7 +247,10 @@ public class LastFM extends Library {
         if (artists.containsKey(params.toString())) {
             return artists.get(params.toString());
         }
-        JsonNode response = this.query("artist.getInfo", this.queryBuilder(params));
+        JsonNode response = null;
+        if (!this.isMiss(params.toString())) {
+            response = this.query("artist.getInfo", this.queryBuilder(params));
+        }
         if (response != null) {
             JsonNode artistNode = response.path("artist");
             if (!artistNode.isMissingNode()) {
@@ -266,6 +278,7 @@ public class LastFM extends Library {
                 return artist;
             } else {
                 logger.debug(artist.toString() + ": artist.getInfo missing artist");
+                this.addMiss(params.toString());
             }
         }
         logger.info("Unable to find artist " + artist.toString() + " in Library");
@@ -1,12 +1,11 @@
 package ryzen.ownitall.library;
 
 import java.io.IOException;
-import java.net.HttpURLConnection;
-import java.net.ProtocolException;
 import java.net.URI;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.concurrent.CompletableFuture;
 
 import com.fasterxml.jackson.databind.JsonNode;
 
@@ -15,8 +14,13 @@ import ryzen.ownitall.Storage;
 import ryzen.ownitall.classes.Album;
 import ryzen.ownitall.classes.Artist;
 import ryzen.ownitall.classes.Song;
+import ryzen.ownitall.method.ScanIndex;
+import ryzen.ownitall.util.ArtworkCache;
 import ryzen.ownitall.util.ClassLoader;
+import ryzen.ownitall.util.ExecutorRegistry;
 import ryzen.ownitall.util.Logger;
+import ryzen.ownitall.util.MappedCache;
+import ryzen.ownitall.util.RateLimiter;
 import ryzen.ownitall.util.WebTools;
 import ryzen.ownitall.util.exceptions.AuthenticationException;
 import ryzen.ownitall.util.exceptions.MissingSettingException;
@@ -32,33 +36,65 @@ import ryzen.ownitall.util.exceptions.QueryException;
 abstract public class Library implements LibraryInterface {
     private static final Logger logger = new Logger(Library.class);
 
-    protected long queryDiff;
     /**
-     * arrays to cache api queries
+     * persistent caches of api queries
+     * only the keys and changed entries are in memory, values are read when
+     * requested
      */
-    protected static LinkedHashMap<String, Artist> artists;
-    protected static LinkedHashMap<String, Album> albums;
-    protected static LinkedHashMap<String, Song> songs;
-    protected static LinkedHashMap<String, String> ids;
+    protected static MappedCache<Artist> artists;
+    protected static MappedCache<Album> albums;
+    protected static MappedCache<Song> songs;
+    protected static MappedCache<String> ids;
+    /**
+     * searches without result, key to expiry time (epoch millis)
+     */
+    protected static MappedCache<Long> misses;
 
     /**
      * default Library constructor
-     * initializes all values and loads from cache
+     * opens the caches if not already open
      */
     protected Library() {
+        openCache();
+    }
+
+    private static synchronized void openCache() {
         if (artists == null) {
-            artists = new LinkedHashMap<>();
+            artists = Storage.openArtistCache();
         }
         if (albums == null) {
-            albums = new LinkedHashMap<>();
+            albums = Storage.openAlbumCache();
         }
         if (songs == null) {
-            songs = new LinkedHashMap<>();
+            songs = Storage.openSongCache();
         }
         if (ids == null) {
-            ids = new LinkedHashMap<>();
+            ids = Storage.openIdCache();
+        }
+        if (misses == null) {
+            misses = Storage.openMissCache();
+        }
+    }
+
+    private static MappedCache<?>[] getCaches() {
+        return new MappedCache<?>[] { artists, albums, songs, ids, misses };
+    }
+
+    private static synchronized void closeCache() {
+        for (MappedCache<?> cache : getCaches()) {
+            if (cache != null) {
+                try {
+                    cache.close();
+                } catch (IOException e) {
+                    logger.error("exception closing cache", e);
+                }
+            }
         }
-        cache();
+        artists = null;
+        albums = null;
+        songs = null;
+        ids = null;
+        misses = null;
     }
 
     /**
@@ -163,24 +199,28 @@ abstract public class Library implements LibraryInterface {
     }
 
     /**
-     * dump all data into cache
+     * write all changed cache entries to disk
+     * skipped for caches without changes
      */
-    public static void cache() {
-        artists = Storage.cacheArtists(artists);
-        albums = Storage.cacheAlbums(albums);
-        songs = Storage.cacheSongs(songs);
-        ids = Storage.cacheIds(ids);
+    public static synchronized void cache() {
+        for (MappedCache<?> cache : getCaches()) {
+            if (cache != null) {
+                cache.flush();
+            }
+        }
     }
 
     /**
-     * clear in memory cache
+     * clear cache
+     * the cache files are closed before deleting and opened again after
+     * the scan index and cover images are in the cache folder too
      */
     public static void clear() {
-        artists.clear();
-        albums.clear();
-        songs.clear();
-        ids.clear();
+        closeCache();
+        ScanIndex.close();
+        ArtworkCache.close();
         Storage.clearCacheFiles();
+        openCache();
     }
 
     /**
@@ -197,6 +237,35 @@ abstract public class Library implements LibraryInterface {
         return null;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public CompletableFuture<Album> getAlbumAsync(Album album) {
+        return async(() -> this.getAlbum(album));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public CompletableFuture<Song> getSongAsync(Song song) {
+        return async(() -> this.getSong(song));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public CompletableFuture<Artist> getArtistAsync(Artist artist) {
+        return async(() -> this.getArtist(artist));
+    }
+
+    /**
+     * run a lookup on the library executor
+     * the rate limiter is what limits the lookups, not the amount of threads
+     *
+     * @param lookup - blocking lookup to run
+     * @return - future completing with the lookup result
+     */
+    private static <T> CompletableFuture<T> async(ExecutorRegistry.Task<T> lookup) {
+        return ExecutorRegistry.supplyAsync("library", Settings.libraryThreads, lookup);
+    }
+
     /**
      * query the specified url, catch errors or return response
      *
@@ -209,20 +278,48 @@ abstract public class Library implements LibraryInterface {
             logger.debug("null url provided to query");
             return null;
         }
-        WebTools.queryPacer(queryDiff);
+        RateLimiter.acquire(url);
         try {
-            HttpURLConnection connection = (HttpURLConnection) url.toURL().openConnection();
-            connection.setRequestMethod("GET");
-            connection.setRequestProperty("User-Agent", "OwnItAll/1.0 (https://github.com/ryzenpay/ownitall)");
-            return WebTools.query(connection);
-        } catch (ProtocolException e) {
-            throw new RuntimeException(e);
-        } catch (IOException | QueryException e) {
+            return WebTools.query(WebTools.request(url).GET().build());
+        } catch (QueryException e) {
             logger.warn("Received error code while querying: " + e.getMessage());
             return null;
         }
     }
 
+    /**
+     * check if a search is known to have no result
+     * known misses expire after the amount of days set in settings
+     *
+     * @param key - search key (params)
+     * @return - true if searched before without result
+     */
+    protected boolean isMiss(String key) {
+        if (key == null || Settings.libraryMissDays <= 0) {
+            return false;
+        }
+        Long expiry = misses.get(this.getClass().getSimpleName() + ":" + key);
+        if (expiry != null && expiry > System.currentTimeMillis()) {
+            logger.debug("Skipping search '" + key + "', no result found before");
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * remember a search without result
+     * only for searches which got a response, not for failed queries
+     *
+     * @param key - search key (params)
+     */
+    protected void addMiss(String key) {
+        if (key == null || Settings.libraryMissDays <= 0) {
+            return;
+        }
+        misses.put(this.getClass().getSimpleName() + ":" + key,
+                System.currentTimeMillis() + Duration.ofDays(Settings.libraryMissDays).toMillis());
+    }
+
     /**
      * <p>
      * queryErrorHandle.
@@ -278,4 +375,43 @@ abstract public class Library implements LibraryInterface {
     public int getIdCacheSize() {
         return ids.size();
     }
+
+    /**
+     * get library memory cache hits of all caches
+     *
+     * @return - long of hits
+     */
+    public long getCacheHits() {
+        long hits = 0;
+        for (MappedCache<?> cache : getCaches()) {
+            hits += cache.getMemoryCache().getHits();
+        }
+        return hits;
+    }
+
+    /**
+     * get library memory cache misses (read from file) of all caches
+     *
+     * @return - long of misses
+     */
+    public long getCacheMisses() {
+        long cacheMisses = 0;
+        for (MappedCache<?> cache : getCaches()) {
+            cacheMisses += cache.getMemoryCache().getMisses();
+        }
+        return cacheMisses;
+    }
+
+    /**
+     * get library memory cache evictions of all caches
+     *
+     * @return - long of evictions
+     */
+    public long getCacheEvictions() {
+        long evictions = 0;
+        for (MappedCache<?> cache : getCaches()) {
+            evictions += cache.getMemoryCache().getEvictions();
+        }
+        return evictions;
+    }
 }
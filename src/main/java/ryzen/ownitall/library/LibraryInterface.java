@@ -1,5 +1,7 @@
 package ryzen.ownitall.library;
 
+import java.util.concurrent.CompletableFuture;
+
 import ryzen.ownitall.classes.Album;
 import ryzen.ownitall.classes.Artist;
 import ryzen.ownitall.classes.Song;
@@ -44,4 +46,28 @@ public interface LibraryInterface {
      * @throws java.lang.InterruptedException if any.
      */
     public Artist getArtist(Artist artist) throws InterruptedException;
+
+    /**
+     * getAlbum without blocking the calling thread
+     *
+     * @param album a {@link ryzen.ownitall.classes.Album} object
+     * @return - future completing with the found Album or null
+     */
+    public CompletableFuture<Album> getAlbumAsync(Album album);
+
+    /**
+     * getSong without blocking the calling thread
+     *
+     * @param song a {@link ryzen.ownitall.classes.Song} object
+     * @return - future completing with the found Song or null
+     */
+    public CompletableFuture<Song> getSongAsync(Song song);
+
+    /**
+     * getArtist without blocking the calling thread
+     *
+     * @param artist a {@link ryzen.ownitall.classes.Artist} object
+     * @return - future completing with the found Artist or null
+     */
+    public CompletableFuture<Artist> getArtistAsync(Artist artist);
 }
@@ -1,23 +1,32 @@
 package ryzen.ownitall.library;
 
-import java.io.IOException;
 import java.io.UnsupportedEncodingException;
-import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
 import com.fasterxml.jackson.databind.JsonNode;
 
+import ryzen.ownitall.Settings;
 import ryzen.ownitall.classes.Album;
 import ryzen.ownitall.classes.Artist;
 import ryzen.ownitall.classes.Song;
+import ryzen.ownitall.util.ExecutorRegistry;
 import ryzen.ownitall.util.Logger;
+import ryzen.ownitall.util.MappedCache;
 import ryzen.ownitall.util.MusicTools;
+import ryzen.ownitall.util.RateLimiter;
+import ryzen.ownitall.util.WebTools;
+import ryzen.ownitall.util.exceptions.QueryException;
 
 /**
  * <p>
@@ -30,6 +39,9 @@ public class MusicBrainz extends Library {
     private static final Logger logger = new Logger(MusicBrainz.class);
     private static final String baseUrl = "https://musicbrainz.org/ws/2/";
     private static final String coverArtUrl = "https://coverartarchive.org/";
+    private static final int resolveThreads = 4;
+    // bounds lookups in flight, also when the executor uses virtual threads
+    private static final Semaphore resolveSlots = new Semaphore(resolveThreads);
 
     /**
      * default MusicBrainz constructor
@@ -37,7 +49,8 @@ public class MusicBrainz extends Library {
      */
     public MusicBrainz() {
         super();
-        this.queryDiff = 1000;
+        // https://musicbrainz.org/doc/MusicBrainz_API/Rate_Limiting
+        RateLimiter.registerIfAbsent("musicbrainz.org", 1, 1);
     }
 
     /** {@inheritDoc} */
@@ -73,7 +86,10 @@ public class MusicBrainz extends Library {
         if (foundId != null) {
             return foundId;
         }
-        JsonNode response = this.query("release", this.searchQueryBuilder(params));
+        JsonNode response = null;
+        if (!this.isMiss(params.toString())) {
+            response = this.query("release", this.searchQueryBuilder(params));
+        }
         if (response != null) {
             JsonNode albumNode = response.path("releases").get(0);
             if (albumNode != null) {
@@ -82,6 +98,7 @@ public class MusicBrainz extends Library {
                 return id;
             } else {
                 logger.debug("missing data in album '" + album.toString() + "' search result");
+                this.addMiss(params.toString());
             }
         }
         if (!album.getName().equals(MusicTools.removeBrackets(album.getName()))) {
@@ -115,14 +132,14 @@ public class MusicBrainz extends Library {
         LinkedHashSet<String> inclusions = new LinkedHashSet<>();
         inclusions.add("recordings");
         inclusions.add("artists");
-        // check cache
+        inclusions.add("artist-credits");
         JsonNode response = this.query("release", this.directQueryBuilder(id, inclusions));
         if (response != null) {
             Album album = new Album(response.path("title").asText());
             album.addId("mbid", response.path("id").asText());
             JsonNode coverArt = response.path("cover-art-archive");
             if (!coverArt.isMissingNode()) {
-                if (coverArt.path("count").asInt() > 1) {
+                if (coverArt.path("count").asInt() > 0) {
                     URI albumCover = this.getCoverArt(response.path("id").asText());
                     if (albumCover != null) {
                         album.setCoverImage(albumCover);
@@ -131,13 +148,26 @@ public class MusicBrainz extends Library {
             } else {
                 logger.debug("Album '" + album.getName() + "' missing coverart");
             }
+            // gather all ids first so every missing entry is only fetched once
+            LinkedHashSet<String> albumArtistIds = new LinkedHashSet<>();
+            LinkedHashSet<String> artistIds = new LinkedHashSet<>();
+            ArrayList<String> recordingIds = new ArrayList<>();
+            LinkedHashSet<String> missingRecordingIds = new LinkedHashSet<>();
+            LinkedHashMap<String, Artist> foundArtists = new LinkedHashMap<>();
+            LinkedHashMap<String, Song> foundSongs = new LinkedHashMap<>();
             JsonNode artistNodes = response.path("artist-credit");
             if (artistNodes.isArray()) {
                 for (JsonNode rootArtistNode : artistNodes) {
-                    JsonNode artistNode = rootArtistNode.path("artist");
-                    Artist artist = this.getArtist(artistNode.path("id").asText());
+                    String artistId = rootArtistNode.path("artist").path("id").asText();
+                    albumArtistIds.add(artistId);
+                    Artist artist = null;
+                    if (Settings.musicBrainzReleaseSongs) {
+                        artist = this.getCreditArtist(rootArtistNode);
+                    }
                     if (artist != null) {
-                        album.addArtist(artist);
+                        foundArtists.put(artistId, artist);
+                    } else {
+                        artistIds.add(artistId);
                     }
                 }
             } else {
@@ -149,10 +179,20 @@ public class MusicBrainz extends Library {
                     JsonNode songNodes = discNode.path("tracks");
                     if (songNodes.isArray()) {
                         for (JsonNode songNode : songNodes) {
-                            Song song = this.getSong(songNode.path("recording").path("id").asText());
-                            if (song != null) {
-                                album.addSong(song);
+                            JsonNode recordingNode = songNode.path("recording");
+                            String recordingId = recordingNode.path("id").asText();
+                            recordingIds.add(recordingId);
+                            if (Settings.musicBrainzReleaseSongs) {
+                                Song song = this.getReleaseSong(songNode, album);
+                                if (song != null) {
+                                    foundSongs.put(recordingId, song);
+                                    continue;
+                                }
                             }
+                            missingRecordingIds.add(recordingId);
+                            // a song is resolved with its first artist
+                            artistIds.add(recordingNode.path("artist-credit").path(0).path("artist").path("id")
+                                    .asText());
                         }
                     } else {
                         logger.debug("Album '" + album.getName() + "' disc missing songs");
@@ -161,6 +201,21 @@ public class MusicBrainz extends Library {
             } else {
                 logger.debug("Album '" + album.getName() + "' missing songs");
             }
+            // artists before songs, so resolving a song finds its artist cached
+            foundArtists.putAll(this.resolve(artistIds, artists, this::getArtist));
+            foundSongs.putAll(this.resolve(missingRecordingIds, songs, this::getSong));
+            for (String artistId : albumArtistIds) {
+                Artist artist = foundArtists.get(artistId);
+                if (artist != null) {
+                    album.addArtist(artist);
+                }
+            }
+            for (String recordingId : recordingIds) {
+                Song song = foundSongs.get(recordingId);
+                if (song != null) {
+                    album.addSong(song);
+                }
+            }
             albums.put(id, album);
             return album;
         }
@@ -206,7 +261,10 @@ public class MusicBrainz extends Library {
         if (foundId != null) {
             return foundId;
         }
-        JsonNode response = this.query("recording", this.searchQueryBuilder(params));
+        JsonNode response = null;
+        if (!this.isMiss(params.toString())) {
+            response = this.query("recording", this.searchQueryBuilder(params));
+        }
         if (response != null) {
             JsonNode trackNode = response.path("recordings").get(0);
             if (trackNode != null) {
@@ -215,6 +273,7 @@ public class MusicBrainz extends Library {
                 return id;
             } else {
                 logger.warn("Missing data while getting Song '" + song.getName() + "'");
+                this.addMiss(params.toString());
             }
         }
         if (!song.getName().equals(MusicTools.removeBrackets(song.getName()))) {
@@ -310,13 +369,18 @@ public class MusicBrainz extends Library {
         if (foundId != null) {
             return foundId;
         }
-        JsonNode response = this.query("artist", this.searchQueryBuilder(params));
+        JsonNode response = null;
+        if (!this.isMiss(params.toString())) {
+            response = this.query("artist", this.searchQueryBuilder(params));
+        }
         if (response != null) {
             JsonNode artistNode = response.path("artists").get(0);
             if (artistNode != null) {
                 String id = artistNode.path("id").asText();
                 ids.put(params.toString(), id);
                 return id;
+            } else {
+                this.addMiss(params.toString());
             }
         }
         logger.debug("could not find artist '" + artist.getName() + "' in library");
@@ -354,7 +418,136 @@ public class MusicBrainz extends Library {
         return null;
     }
 
-    private URI getCoverArt(String id) {
+    /**
+     * construct a song from a track of a release response
+     * shares the cover art of the album instead of looking it up
+     *
+     * @param trackNode - track node of the release response
+     * @param album     - album the track is on
+     * @return - constructed Song or null if the track is missing data, which
+     *         requires querying the recording
+     */
+    private Song getReleaseSong(JsonNode trackNode, Album album) {
+        JsonNode recordingNode = trackNode.path("recording");
+        String id = recordingNode.path("id").asText();
+        if (id.isEmpty()) {
+            return null;
+        }
+        Song foundSong = songs.get(id);
+        if (foundSong != null) {
+            return foundSong;
+        }
+        String title = recordingNode.path("title").asText(trackNode.path("title").asText());
+        long length = recordingNode.path("length").asLong(trackNode.path("length").asLong());
+        Artist artist = this.getCreditArtist(recordingNode.path("artist-credit").path(0));
+        if (title.isEmpty() || length <= 0 || artist == null) {
+            logger.debug("Track '" + id + "' missing data in release, querying recording");
+            return null;
+        }
+        Song song = new Song(title);
+        song.setDuration(length, ChronoUnit.MILLIS);
+        song.addId("mbid", id);
+        song.addArtist(artist);
+        if (album.getCoverImage() != null) {
+            song.setCoverImage(album.getCoverImage());
+        }
+        songs.put(id, song);
+        return song;
+    }
+
+    /**
+     * construct an artist from an artist credit, which holds the same data as
+     * querying the artist
+     *
+     * @param creditNode - artist credit node
+     * @return - cached or constructed Artist, null if the credit is missing data
+     */
+    private Artist getCreditArtist(JsonNode creditNode) {
+        JsonNode artistNode = creditNode.path("artist");
+        String id = artistNode.path("id").asText();
+        if (id.isEmpty()) {
+            return null;
+        }
+        Artist foundArtist = artists.get(id);
+        if (foundArtist != null) {
+            return foundArtist;
+        }
+        String name = artistNode.path("name").asText();
+        if (name.isEmpty()) {
+            return null;
+        }
+        Artist artist = new Artist(name);
+        artist.addId("mbid", id);
+        artists.put(id, artist);
+        return artist;
+    }
+
+    @FunctionalInterface
+    private interface Resolver<T> {
+        T resolve(String id) throws InterruptedException;
+    }
+
+    /**
+     * resolve a batch of ids
+     * cached ids are taken from the cache, the others are fetched on the shared
+     * musicbrainz executor, at most resolveThreads at a time (every query still
+     * waits for the rate limiter)
+     *
+     * @param ids      - ids to resolve, empty ids are skipped
+     * @param cache    - cache to check before fetching
+     * @param resolver - function to fetch a single id
+     * @return - linkedhashmap of id and resolved value, unresolved ids are left
+     *         out
+     * @throws InterruptedException - when user interrupts
+     */
+    private <T> LinkedHashMap<String, T> resolve(LinkedHashSet<String> ids, MappedCache<T> cache,
+            Resolver<T> resolver) throws InterruptedException {
+        LinkedHashMap<String, T> resolved = new LinkedHashMap<>();
+        LinkedHashMap<String, Future<T>> pending = new LinkedHashMap<>();
+        try {
+            for (String id : ids) {
+                if (id == null || id.isEmpty()) {
+                    continue;
+                }
+                T value = cache.get(id);
+                if (value != null) {
+                    resolved.put(id, value);
+                    continue;
+                }
+                ExecutorService executor = ExecutorRegistry.get("musicbrainz", resolveThreads);
+                pending.put(id, executor.submit(() -> {
+                    resolveSlots.acquire();
+                    try {
+                        return resolver.resolve(id);
+                    } finally {
+                        resolveSlots.release();
+                    }
+                }));
+            }
+            if (!pending.isEmpty()) {
+                logger.debug("Resolving " + pending.size() + " of " + ids.size() + " ids, "
+                        + resolved.size() + " cached");
+            }
+            for (String id : pending.keySet()) {
+                try {
+                    T value = pending.get(id).get();
+                    if (value != null) {
+                        resolved.put(id, value);
+                    }
+                } catch (ExecutionException e) {
+                    logger.error("Exception resolving '" + id + "'", e);
+                }
+            }
+        } finally {
+            // the executor is shared, only this batch is stopped when interrupted
+            for (Future<T> future : pending.values()) {
+                future.cancel(true);
+            }
+        }
+        return resolved;
+    }
+
+    private URI getCoverArt(String id) throws InterruptedException {
         if (id == null || id.isEmpty()) {
             logger.debug("null or empty id provided in getCoverArt");
             return null;
@@ -364,16 +557,11 @@ public class MusicBrainz extends Library {
         urlBuilder.append(id).append('/');
         urlBuilder.append("front");
         try {
-            URI url = new URI(urlBuilder.toString());
-            HttpURLConnection connection = (HttpURLConnection) url.toURL().openConnection();
-            connection.setInstanceFollowRedirects(false);
-            connection.connect();
-            String redirectUrl = connection.getHeaderField("Location");
-            connection.disconnect();
+            URI redirectUrl = WebTools.getRedirect(new URI(urlBuilder.toString()));
             if (redirectUrl != null) {
-                return new URI(redirectUrl);
+                return redirectUrl;
             }
-        } catch (IOException | URISyntaxException e) {
+        } catch (QueryException | URISyntaxException e) {
             logger.error("Exception while getting coverArt", e);
         }
         logger.debug("No coverart found for: '" + id + "'");
@@ -1,9 +1,8 @@
 package ryzen.ownitall.method;
 
-import java.io.IOException;
-import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.net.http.HttpRequest;
 import java.util.ArrayList;
 
 import com.fasterxml.jackson.databind.JsonNode;
@@ -14,6 +13,7 @@ import ryzen.ownitall.classes.LikedSongs;
 import ryzen.ownitall.classes.Playlist;
 import ryzen.ownitall.method.interfaces.Import;
 import ryzen.ownitall.util.Logger;
+import ryzen.ownitall.util.RateLimiter;
 import ryzen.ownitall.util.WebTools;
 import ryzen.ownitall.util.exceptions.AuthenticationException;
 import ryzen.ownitall.util.exceptions.MissingSettingException;
@@ -31,6 +31,7 @@ public class AppleMusic implements Import {
             logger.debug("Empty AppleMusic credentials");
             throw new MissingSettingException(AppleMusic.class);
         }
+        RateLimiter.registerIfAbsent(URI.create(baseUrl).getHost(), 2, 2);
         this.token = WebTools.getOauthToken(
                 "https://appleid.apple.com/auth/oauth2/v2/token?grant_type=authorization_code",
                 "https://appleid.apple.com/auth/authorize?response_type=code",
@@ -47,16 +48,17 @@ public class AppleMusic implements Import {
         }
         try {
             URI url = new URI(baseUrl + path + flags);
-            HttpURLConnection connection = (HttpURLConnection) url.toURL().openConnection();
-            connection.setRequestProperty("Accept", "application/vnd.api+json");
-            connection.setRequestProperty("Authorization", "Bearer " + this.token);
-
-            WebTools.queryPacer(500);
-            return WebTools.query(connection);
+            HttpRequest request = WebTools.request(url)
+                    .header("Accept", "application/vnd.api+json")
+                    .header("Authorization", "Bearer " + this.token)
+                    .GET()
+                    .build();
+            RateLimiter.acquire(url);
+            return WebTools.query(request);
         } catch (URISyntaxException e) {
             logger.error("Exception while constructing apple music query", e);
             return null;
-        } catch (QueryException | IOException | InterruptedException e) {
+        } catch (QueryException | InterruptedException e) {
             logger.warn("Exception while querying apple music: " + e);
             return null;
         }
@@ -0,0 +1,294 @@
+package ryzen.ownitall.method;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.concurrent.TimeUnit;
+
+import ryzen.ownitall.Collection;
+import ryzen.ownitall.Settings;
+import ryzen.ownitall.classes.Album;
+import ryzen.ownitall.classes.Playlist;
+import ryzen.ownitall.classes.Song;
+import ryzen.ownitall.util.FileTools;
+import ryzen.ownitall.util.InterruptionHandler;
+import ryzen.ownitall.util.Logger;
+import ryzen.ownitall.util.exceptions.AuthenticationException;
+import ryzen.ownitall.util.exceptions.MissingSettingException;
+
+/**
+ * <p>
+ * FolderWatcher class.
+ * </p>
+ * keeps the collection in sync with the local library while running
+ * changes are collected until the library was quiet for watchDelaySeconds,
+ * then only the changed albums, playlists and song files are read again
+ *
+ * @author ryzen
+ */
+public class FolderWatcher implements AutoCloseable {
+    private static final Logger logger = new Logger(FolderWatcher.class);
+    private final Upload upload;
+    private final WatchService watchService;
+    private final HashMap<WatchKey, Path> folders = new HashMap<>();
+    // changed path -> deleted
+    private final LinkedHashMap<Path, Boolean> changes = new LinkedHashMap<>();
+    private boolean overflow = false;
+
+    /**
+     * default FolderWatcher constructor
+     * watches every folder in the local library
+     *
+     * @throws MissingSettingException - when the local library is not set
+     * @throws AuthenticationException - when the local library does not exist
+     * @throws IOException             - when unable to watch the local library
+     */
+    public FolderWatcher() throws MissingSettingException, AuthenticationException, IOException {
+        this.upload = new Upload();
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.register(Settings.localFolder.toPath());
+    }
+
+    private void register(Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                WatchKey key = dir.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+                folders.put(key, dir);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                // files of a new folder do not get their own events
+                if (!root.equals(Settings.localFolder.toPath())) {
+                    changes.put(file, false);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                logger.warn("Unable to watch '" + file + "': " + e.getMessage());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * watch the local library until the user interrupts
+     *
+     * @throws InterruptedException - when user interrupts
+     */
+    public void watch() throws InterruptedException {
+        long delay = TimeUnit.SECONDS.toMillis(Math.max(Settings.watchDelaySeconds, 1));
+        logger.info("Watching '" + Settings.localFolder.getAbsolutePath() + "' for changes");
+        try (InterruptionHandler interruptionHandler = new InterruptionHandler()) {
+            long firstChange = 0;
+            long lastChange = 0;
+            while (true) {
+                interruptionHandler.checkInterruption();
+                WatchKey key = this.watchService.poll(1, TimeUnit.SECONDS);
+                long now = System.currentTimeMillis();
+                if (key != null) {
+                    if (this.changes.isEmpty() && !this.overflow) {
+                        firstChange = now;
+                    }
+                    lastChange = now;
+                    this.queueEvents(key);
+                    continue;
+                }
+                if (this.changes.isEmpty() && !this.overflow) {
+                    continue;
+                }
+                // apply once quiet, or anyway when changes keep coming
+                if (now - lastChange >= delay || now - firstChange >= delay * 10) {
+                    this.applyChanges();
+                    ScanIndex.flush();
+                }
+            }
+        }
+    }
+
+    private void queueEvents(WatchKey key) {
+        Path folder = this.folders.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                logger.warn("Missed changes in '" + folder + "', reading the whole library again");
+                this.overflow = true;
+                continue;
+            }
+            if (folder == null) {
+                continue;
+            }
+            Path path = folder.resolve((Path) event.context());
+            if (event.kind() == ENTRY_CREATE && Files.isDirectory(path)) {
+                try {
+                    this.register(path);
+                } catch (IOException e) {
+                    logger.error("Exception watching new folder '" + path + "'", e);
+                }
+            }
+            // a later event replaces the earlier, ex: deleted and created again
+            this.changes.remove(path);
+            this.changes.put(path, event.kind() == ENTRY_DELETE);
+        }
+        if (!key.reset()) {
+            this.folders.remove(key);
+        }
+    }
+
+    private void applyChanges() throws InterruptedException {
+        if (this.overflow) {
+            this.overflow = false;
+            this.changes.clear();
+            Collection.addAlbums(this.upload.getAlbums());
+            Collection.addPlaylists(this.upload.getPlaylists());
+            Collection.addLikedSongs(this.upload.getLikedSongs());
+            return;
+        }
+        Path root = Settings.localFolder.toPath();
+        LinkedHashSet<Path> albumFolders = new LinkedHashSet<>();
+        LinkedHashMap<Path, Boolean> playlistFiles = new LinkedHashMap<>();
+        LinkedHashMap<Path, Boolean> songFiles = new LinkedHashMap<>();
+        for (Path path : this.changes.keySet()) {
+            boolean deleted = this.changes.get(path);
+            File file = path.toFile();
+            String extension = FileTools.getExtension(file);
+            if (extension.equalsIgnoreCase("m3u")) {
+                playlistFiles.put(path, deleted);
+                continue;
+            }
+            if (Upload.hasSongExtension(file)) {
+                songFiles.put(path, deleted);
+                if (!path.getParent().equals(root)) {
+                    albumFolders.add(path.getParent());
+                }
+            } else if (file.getName().equals("album.nfo")) {
+                albumFolders.add(path.getParent());
+            } else if (deleted || file.isDirectory()) {
+                // a folder in the library, deleted paths can be a removed album
+                albumFolders.add(path);
+            }
+        }
+        this.changes.clear();
+        logger.debug("Applying changes: " + albumFolders.size() + " album folders, " + playlistFiles.size()
+                + " playlists, " + songFiles.size() + " songs");
+        for (Path folder : albumFolders) {
+            this.applyAlbum(folder.toFile());
+        }
+        for (Path file : playlistFiles.keySet()) {
+            this.applyPlaylist(file.toFile(), playlistFiles.get(file));
+        }
+        this.applyLikedSongs(songFiles);
+    }
+
+    private void applyAlbum(File folder) throws InterruptedException {
+        Album oldAlbum = null;
+        for (Album album : Collection.getAlbums()) {
+            if (new File(Settings.localFolder, FileTools.sanitizeFileName(album.getName())).equals(folder)) {
+                oldAlbum = album;
+                break;
+            }
+        }
+        Album album = null;
+        if (folder.isDirectory() && new File(folder, "album.nfo").exists()) {
+            album = this.upload.getAlbum(folder.getAbsolutePath(), null, null);
+        }
+        if (oldAlbum != null) {
+            Collection.removeAlbum(oldAlbum);
+        }
+        if (album != null) {
+            Collection.addAlbum(album);
+            logger.info("Updated album '" + album.getName() + "' from '" + folder.getAbsolutePath() + "'");
+        } else if (oldAlbum != null) {
+            logger.info("Removed album '" + oldAlbum.getName() + "', folder '" + folder.getAbsolutePath()
+                    + "' is gone");
+        }
+    }
+
+    private void applyPlaylist(File file, boolean deleted) throws InterruptedException {
+        Playlist oldPlaylist = null;
+        for (Playlist playlist : Collection.getPlaylists()) {
+            if (new File(Settings.localFolder, FileTools.sanitizeFileName(playlist.getName()) + ".m3u")
+                    .equals(file)) {
+                oldPlaylist = playlist;
+                break;
+            }
+        }
+        Playlist playlist = null;
+        if (!deleted && file.isFile()) {
+            playlist = Upload.getM3UPlaylist(file);
+        }
+        if (oldPlaylist != null) {
+            Collection.removePlaylist(oldPlaylist);
+        }
+        if (playlist != null) {
+            Collection.addPlaylist(playlist);
+            logger.info("Updated playlist '" + playlist.getName() + "' from '" + file.getAbsolutePath() + "'");
+        } else if (oldPlaylist != null) {
+            logger.info("Removed playlist '" + oldPlaylist.getName() + "', file '" + file.getAbsolutePath()
+                    + "' is gone");
+        }
+    }
+
+    private void applyLikedSongs(LinkedHashMap<Path, Boolean> songFiles) throws InterruptedException {
+        if (songFiles.isEmpty()) {
+            return;
+        }
+        HashMap<File, Song> oldLikedSongs = new HashMap<>();
+        for (Song song : Collection.getLikedSongs().getSongs()) {
+            oldLikedSongs.put(new File(Settings.localFolder, Collection.getRelativeSongPath(song).toString()), song);
+        }
+        ArrayList<File> changedFiles = new ArrayList<>();
+        for (Path path : songFiles.keySet()) {
+            if (!songFiles.get(path)) {
+                changedFiles.add(path.toFile());
+            }
+        }
+        // all changed files are read at once on the upload threads
+        LinkedHashMap<File, Song> likedSongs = Upload.getLikedSongs(changedFiles);
+        for (Path path : songFiles.keySet()) {
+            File file = path.toFile();
+            Song oldSong = oldLikedSongs.get(file);
+            Song song = likedSongs.get(file);
+            if (oldSong != null && (song == null || !oldSong.equals(song))) {
+                Collection.removeLikedSong(oldSong);
+                logger.debug("Removed liked song '" + oldSong.getName() + "'");
+            }
+            if (song != null) {
+                Collection.addLikedSong(song);
+                logger.debug("Added liked song '" + song.getName() + "'");
+            }
+        }
+    }
+
+    /**
+     * stop watching the local library
+     */
+    @Override
+    public void close() {
+        try {
+            this.watchService.close();
+        } catch (IOException e) {
+            logger.error("Exception closing folder watcher", e);
+        }
+    }
+}
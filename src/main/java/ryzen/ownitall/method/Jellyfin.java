@@ -1,12 +1,10 @@
 package ryzen.ownitall.method;
 
-import java.io.IOException;
-import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
-import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URLEncoder;
+import java.net.http.HttpRequest;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
@@ -487,26 +485,20 @@ public class Jellyfin implements Import, Export, Sync {
         }
         try {
             URI url = new URI(Settings.jellyfinURL + type + builder.toString());
-            HttpURLConnection connection = (HttpURLConnection) url.toURL().openConnection();
-            connection.setRequestMethod(method.toUpperCase());
-            connection.setRequestProperty("Content-Type", "application/json");
-            connection.setRequestProperty("Accept", "application/json");
-            // https://gist.github.com/nielsvanvelzen/ea047d9028f676185832e51ffaf12a6f
-            String authHeader = String.format(
-                    "MediaBrowser Client=\"%s\", Device=\"%s\", DeviceId=\"%s\", Version=\"%s\", Token=\"%s\"",
-                    "ownitall",
-                    "Java",
-                    Settings.jellyfinUsername + "ownitall",
-                    "10.10.6",
-                    this.accessToken);
-            connection.setRequestProperty("Authorization", authHeader);
-            return WebTools.query(connection);
+            HttpRequest request = this.request(url)
+                    .method(method.toUpperCase(), HttpRequest.BodyPublishers.noBody())
+                    .build();
+            return WebTools.query(request);
         } catch (URISyntaxException e) {
             logger.error("Exception while constructing jellyfin paramQuery", e);
             return null;
-        } catch (QueryException | IOException e) {
+        } catch (QueryException e) {
             logger.error("Exception while paramQuery jellyfin", e);
             return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.debug("Interrupted while paramQuery jellyfin");
+            return null;
         }
     }
 
@@ -525,31 +517,35 @@ public class Jellyfin implements Import, Export, Sync {
         }
         try {
             URI url = new URI(Settings.jellyfinURL + type);
-            HttpURLConnection connection = (HttpURLConnection) url.toURL().openConnection();
-            connection.setRequestMethod(method.toUpperCase());
-            connection.setRequestProperty("Content-Type", "application/json");
-            connection.setRequestProperty("Accept", "application/json");
-            // https://gist.github.com/nielsvanvelzen/ea047d9028f676185832e51ffaf12a6f
-            String authHeader = String.format(
-                    "MediaBrowser Client=\"%s\", Device=\"%s\", DeviceId=\"%s\", Version=\"%s\", Token=\"%s\"",
-                    "ownitall",
-                    "Java",
-                    Settings.jellyfinUsername + "ownitall",
-                    "10.10.6",
-                    this.accessToken);
-            connection.setRequestProperty("Authorization", authHeader);
-            connection.setDoOutput(true);
-            try (OutputStream os = connection.getOutputStream()) {
-                byte[] input = payload.toString().getBytes("utf-8");
-                os.write(input, 0, input.length);
-            }
-            return WebTools.query(connection);
+            HttpRequest request = this.request(url)
+                    .method(method.toUpperCase(), HttpRequest.BodyPublishers.ofString(payload.toString()))
+                    .build();
+            return WebTools.query(request);
         } catch (URISyntaxException e) {
             logger.error("Exception while constructing jellyfin payloadQuery", e);
             return null;
-        } catch (QueryException | IOException e) {
+        } catch (QueryException e) {
             logger.error("Exception while querying jellyfin", e);
             return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.debug("Interrupted while querying jellyfin");
+            return null;
         }
     }
+
+    private HttpRequest.Builder request(URI url) {
+        // https://gist.github.com/nielsvanvelzen/ea047d9028f676185832e51ffaf12a6f
+        String authHeader = String.format(
+                "MediaBrowser Client=\"%s\", Device=\"%s\", DeviceId=\"%s\", Version=\"%s\", Token=\"%s\"",
+                "ownitall",
+                "Java",
+                Settings.jellyfinUsername + "ownitall",
+                "10.10.6",
+                this.accessToken);
+        return WebTools.request(url)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .header("Authorization", authHeader);
+    }
 }
@@ -0,0 +1,69 @@
+package ryzen.ownitall.method;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import ryzen.ownitall.util.TrackMetadata;
+
+/**
+ * <p>
+ * ScanEntry class.
+ * </p>
+ * metadata of a scanned song file, stored in the ScanIndex together with the
+ * size and modification time the file had when it was read
+ *
+ * @author ryzen
+ */
+public class ScanEntry {
+    private final long size;
+    private final long modified;
+    private final TrackMetadata metadata;
+
+    /**
+     * default ScanEntry constructor
+     *
+     * @param size     - file size in bytes
+     * @param modified - last modification time of the file (epoch millis)
+     * @param metadata - metadata read from the file
+     */
+    @JsonCreator
+    public ScanEntry(@JsonProperty("size") long size, @JsonProperty("modified") long modified,
+            @JsonProperty("metadata") TrackMetadata metadata) {
+        this.size = size;
+        this.modified = modified;
+        this.metadata = metadata;
+    }
+
+    /**
+     * <p>
+     * Getter for the field <code>size</code>.
+     * </p>
+     *
+     * @return a long
+     */
+    public long getSize() {
+        return this.size;
+    }
+
+    /**
+     * <p>
+     * Getter for the field <code>modified</code>.
+     * </p>
+     *
+     * @return a long
+     */
+    public long getModified() {
+        return this.modified;
+    }
+
+    /**
+     * <p>
+     * Getter for the field <code>metadata</code>.
+     * </p>
+     *
+     * @return a {@link ryzen.ownitall.util.TrackMetadata} object
+     */
+    public TrackMetadata getMetadata() {
+        return this.metadata;
+    }
+}
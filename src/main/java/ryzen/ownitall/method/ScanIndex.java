@@ -0,0 +1,99 @@
+package ryzen.ownitall.method;
+
+import java.io.File;
+import java.io.IOException;
+
+import ryzen.ownitall.Storage;
+import ryzen.ownitall.util.Logger;
+import ryzen.ownitall.util.MappedCache;
+import ryzen.ownitall.util.TrackMetadata;
+
+/**
+ * <p>
+ * ScanIndex class.
+ * </p>
+ * persistent index of the metadata of local song files
+ * a file with the same size and modification time as when it was indexed is
+ * not opened again, so scanning an unchanged library only lists folders
+ *
+ * @author ryzen
+ */
+public class ScanIndex {
+    private static final Logger logger = new Logger(ScanIndex.class);
+    private static MappedCache<ScanEntry> entries;
+
+    private static synchronized MappedCache<ScanEntry> getEntries() {
+        if (entries == null) {
+            entries = Storage.openScanIndex();
+        }
+        return entries;
+    }
+
+    /**
+     * get the indexed metadata of a song file
+     *
+     * @param file - song file
+     * @return - TrackMetadata or null if not indexed or changed since
+     */
+    public static TrackMetadata get(File file) {
+        if (file == null) {
+            logger.debug("null file provided in get");
+            return null;
+        }
+        MappedCache<ScanEntry> index = getEntries();
+        if (index == null) {
+            return null;
+        }
+        ScanEntry entry = index.get(file.getAbsolutePath());
+        if (entry == null || entry.getMetadata() == null) {
+            return null;
+        }
+        if (entry.getSize() != file.length() || entry.getModified() != file.lastModified()) {
+            logger.debug("File '" + file.getAbsolutePath() + "' changed since it was indexed");
+            return null;
+        }
+        return entry.getMetadata();
+    }
+
+    /**
+     * index the metadata of a song file
+     *
+     * @param file     - song file
+     * @param metadata - metadata read from the file
+     */
+    public static void put(File file, TrackMetadata metadata) {
+        if (file == null || metadata == null) {
+            logger.debug("null file or metadata provided in put");
+            return;
+        }
+        MappedCache<ScanEntry> index = getEntries();
+        if (index != null) {
+            index.put(file.getAbsolutePath(), new ScanEntry(file.length(), file.lastModified(), metadata));
+        }
+    }
+
+    /**
+     * write all changed entries to disk
+     */
+    public static synchronized void flush() {
+        if (entries != null) {
+            entries.flush();
+        }
+    }
+
+    /**
+     * write all changed entries to disk and close the index file
+     * it is opened again on the next use
+     */
+    public static synchronized void close() {
+        if (entries == null) {
+            return;
+        }
+        try {
+            entries.close();
+        } catch (IOException e) {
+            logger.error("exception closing scan index", e);
+        }
+        entries = null;
+    }
+}
@@ -484,7 +484,8 @@ public class Spotify implements Import, Export, Sync {
     public void syncAlbums() throws InterruptedException {
         ArrayList<Album> albums = this.getAlbums();
         if (albums != null && !albums.isEmpty()) {
-            albums.removeAll(Collection.getAlbums());
+            // fuzzy matched, spotify albums do not share ids with the collection
+            albums.removeIf(album -> Collection.getAlbum(album) != null);
             ArrayList<String> albumIds = new ArrayList<>();
             for (Album album : albums) {
                 String id = this.getAlbumId(album);
@@ -750,7 +751,7 @@ public class Spotify implements Import, Export, Sync {
         logger.debug("Getting spotify playlists to remove mismatches");
         ArrayList<Playlist> playlists = this.getPlaylists();
         if (playlists != null && !playlists.isEmpty()) {
-            playlists.removeAll(Collection.getPlaylists());
+            playlists.removeIf(playlist -> Collection.getPlaylist(playlist) != null);
             for (Playlist playlist : playlists) {
                 // currently not suported by spotify wrapper to delete playlists
                 logger.warn("Playlist '" + playlist.getName()
@@ -864,7 +865,8 @@ public class Spotify implements Import, Export, Sync {
             }
         } else {
             // filter out the existing playlist songs
-            songs.removeAll(currentSongs);
+            ArrayList<Song> existingSongs = currentSongs;
+            songs.removeIf(song -> existingSongs.stream().anyMatch(song::matches));
         }
         ArrayList<String> songUris = new ArrayList<>();
         for (Song song : songs) {
@@ -1,9 +1,8 @@
 package ryzen.ownitall.method;
 
-import java.io.IOException;
-import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.net.http.HttpRequest;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -19,6 +18,7 @@ import ryzen.ownitall.classes.Song;
 import ryzen.ownitall.method.interfaces.Import;
 import ryzen.ownitall.util.IPIterator;
 import ryzen.ownitall.util.Logger;
+import ryzen.ownitall.util.RateLimiter;
 import ryzen.ownitall.util.WebTools;
 import ryzen.ownitall.util.exceptions.AuthenticationException;
 import ryzen.ownitall.util.exceptions.MissingSettingException;
@@ -40,6 +40,7 @@ public class Tidal implements Import {
             logger.debug("Empty tidal credentials");
             throw new MissingSettingException(Tidal.class);
         }
+        RateLimiter.registerIfAbsent(URI.create(baseUrl).getHost(), 2, 2);
         this.token = WebTools.getOauthToken("https://auth.tidal.com/v1/oauth2/token?grant_type=authorization_code",
                 "https://login.tidal.com/authorize?response_type=code",
                 Settings.tidalClientID, null, scope);
@@ -50,17 +51,18 @@ public class Tidal implements Import {
     private String getUserID() throws AuthenticationException {
         try {
             URI uri = new URI(baseUrl + "/users/me");
-            HttpURLConnection connection = (HttpURLConnection) uri.toURL().openConnection();
-            connection.setRequestMethod("GET");
-            connection.setRequestProperty("accept", "application/vnd.api+json");
-            connection.setRequestProperty("Authorization", "Bearer " + this.token);
-            JsonNode response = WebTools.query(connection);
-            if (response.has("data")) {
+            HttpRequest request = WebTools.request(uri)
+                    .header("Accept", "application/vnd.api+json")
+                    .header("Authorization", "Bearer " + this.token)
+                    .GET()
+                    .build();
+            JsonNode response = WebTools.query(request);
+            if (response != null && response.has("data")) {
                 return response.path("data").path("id").asText();
             } else {
-                throw new AuthenticationException("no user id in response: " + response.toString());
+                throw new AuthenticationException("no user id in response: " + response);
             }
-        } catch (IOException | QueryException e) {
+        } catch (QueryException | InterruptedException e) {
             throw new AuthenticationException(e);
         } catch (URISyntaxException e) {
             logger.error("Invalid tidal oauth url constructed", e);
@@ -80,16 +82,17 @@ public class Tidal implements Import {
         }
         try {
             URI url = new URI(baseUrl + path + flags);
-            HttpURLConnection connection = (HttpURLConnection) url.toURL().openConnection();
-            connection.setRequestProperty("Accept", "application/vnd.api+json");
-            connection.setRequestProperty("Authorization", "Bearer " + this.token);
-
-            WebTools.queryPacer(500);
-            return WebTools.query(connection);
+            HttpRequest request = WebTools.request(url)
+                    .header("Accept", "application/vnd.api+json")
+                    .header("Authorization", "Bearer " + this.token)
+                    .GET()
+                    .build();
+            RateLimiter.acquire(url);
+            return WebTools.query(request);
         } catch (URISyntaxException e) {
             logger.error("Exception while constructing tidal query", e);
             return null;
-        } catch (QueryException | IOException | InterruptedException e) {
+        } catch (QueryException | InterruptedException e) {
             logger.warn("Exception while querying tidal: " + e);
             return null;
         }
@@ -4,18 +4,27 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
-import java.time.Duration;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-
-import org.jaudiotagger.tag.FieldKey;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 
 import ryzen.ownitall.Collection;
 import ryzen.ownitall.Settings;
@@ -26,11 +35,13 @@ import ryzen.ownitall.classes.Playlist;
 import ryzen.ownitall.classes.Song;
 import ryzen.ownitall.library.Library;
 import ryzen.ownitall.method.interfaces.Import;
+import ryzen.ownitall.util.ExecutorRegistry;
 import ryzen.ownitall.util.FileTools;
 import ryzen.ownitall.util.IPIterator;
 import ryzen.ownitall.util.InterruptionHandler;
 import ryzen.ownitall.util.Logger;
 import ryzen.ownitall.util.MusicTools;
+import ryzen.ownitall.util.TrackMetadata;
 import ryzen.ownitall.util.exceptions.AuthenticationException;
 import ryzen.ownitall.util.exceptions.MissingSettingException;
 
@@ -68,12 +79,25 @@ public class Upload implements Import {
         if (file == null) {
             return false;
         }
-        if (file.isFile() && extensions.contains(FileTools.getExtension(file).toLowerCase())) {
+        if (file.isFile() && hasSongExtension(file)) {
             return true;
         }
         return false;
     }
 
+    /**
+     * check if a file has the extension of a song file, also for deleted files
+     *
+     * @param file - file to check
+     * @return - true if a song extension
+     */
+    public static boolean hasSongExtension(File file) {
+        if (file == null) {
+            return false;
+        }
+        return extensions.contains(FileTools.getExtension(file).toLowerCase());
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -87,23 +111,10 @@ public class Upload implements Import {
     @Override
     public LikedSongs getLikedSongs() throws InterruptedException {
         LikedSongs likedSongs = new LikedSongs();
-        try (InterruptionHandler interruptionHandler = new InterruptionHandler()) {
-            LikedSongs rootLikedSongs = getLikedSongs(Settings.localFolder);
-            if (rootLikedSongs != null) {
-                likedSongs.addSongs(rootLikedSongs.getSongs());
-            }
-            interruptionHandler.checkInterruption();
-            File[] files = Settings.localFolder.listFiles();
-            for (File folder : IPIterator.wrap(files, "Liked Songs", files.length)) {
-                if (folder.isDirectory()) {
-                    interruptionHandler.checkInterruption();
-                    LikedSongs folderLikedSongs = getLikedSongs(folder);
-                    if (folderLikedSongs != null) {
-                        likedSongs.addSongs(folderLikedSongs.getSongs());
-                    }
-                }
-            }
-        }
+        // the liked rating is in the song file, so every folder is searched
+        walkSongs(Settings.localFolder, Integer.MAX_VALUE, "Liked Songs", true, (file, song) -> {
+            likedSongs.addSong(song);
+        });
         return likedSongs;
     }
 
@@ -122,22 +133,9 @@ public class Upload implements Import {
             return null;
         }
         LikedSongs likedSongs = new LikedSongs();
-        File[] files = folder.listFiles();
-        for (File file : IPIterator.wrap(files, "Liked Songs", files.length)) {
-            if (isSongFile(file)) {
-                Song song = getSong(file);
-                if (song != null) {
-                    try {
-                        if (MusicTools.isSongLiked(file)) {
-                            likedSongs.addSong(song);
-                        }
-                    } catch (Exception e) {
-                        logger.error(
-                                "Exception checking if song '" + file.getAbsolutePath() + "' is liked", e);
-                    }
-                }
-            }
-        }
+        walkSongs(folder, 1, "Liked Songs", true, (file, song) -> {
+            likedSongs.addSong(song);
+        });
         return likedSongs;
     }
 
@@ -256,13 +254,32 @@ public class Upload implements Import {
     @Override
     public ArrayList<Album> getAlbums() throws InterruptedException {
         ArrayList<Album> albums = new ArrayList<>();
-        File[] files = Settings.localFolder.listFiles();
-        for (File file : IPIterator.wrap(files, "Albums", files.length)) {
-            if (file.isDirectory() && new File(file, "album.nfo").exists()) {
-                Album album = this.getAlbum(file.getAbsolutePath(), null, null);
-                if (album != null) {
-                    albums.add(album);
+        // album folders can be nested, ex: artist/album
+        ArrayList<File> folders = new ArrayList<>();
+        try {
+            Files.walkFileTree(Settings.localFolder.toPath(), new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    if (!dir.equals(Settings.localFolder.toPath()) && Files.exists(dir.resolve("album.nfo"))) {
+                        folders.add(dir.toFile());
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    logger.warn("Unable to read '" + file + "': " + e.getMessage());
+                    return FileVisitResult.CONTINUE;
                 }
+            });
+        } catch (IOException e) {
+            logger.error("Exception searching albums in '" + Settings.localFolder.getAbsolutePath() + "'", e);
+        }
+        for (File folder : IPIterator.wrap(folders, "Albums", folders.size())) {
+            Album album = this.getAlbum(folder.getAbsolutePath(), null, null);
+            if (album != null) {
+                albums.add(album);
             }
         }
         return albums;
@@ -325,33 +342,130 @@ public class Upload implements Import {
             logger.debug("null or non-directory or non-existent folder passed in getSongs");
             return null;
         }
+        // songs complete in any order, sorting on file keeps the track order
+        TreeMap<File, Song> songs = new TreeMap<>();
+        walkSongs(folder, 1, folder.getName(), false, songs::put);
+        return new ArrayList<>(songs.values());
+    }
 
-        ArrayList<Song> songs = new ArrayList<>();
-        File[] files = folder.listFiles();
+    /**
+     * walk all song files under a folder and read them in parallel
+     * metadata is read on the shared upload executor, the library lookups are
+     * queued on the library threads so no thread waits on a lookup
+     * at most a few songs per core are read at once, so a large library does
+     * not queue every file up front
+     *
+     * @param folder    - folder to walk
+     * @param maxDepth  - amount of folder levels to walk, 1 for only the folder
+     * @param title     - title of the progress bar
+     * @param likedOnly - only read songs which are liked
+     * @param consumer  - receives every song file with its song as soon as it
+     *                  is read, on the calling thread
+     * @throws java.lang.InterruptedException - when user interrupts
+     */
+    private static void walkSongs(File folder, int maxDepth, String title, boolean likedOnly,
+            BiConsumer<File, Song> consumer) throws InterruptedException {
+        ArrayList<File> files = new ArrayList<>();
+        try {
+            Files.walkFileTree(folder.toPath(), EnumSet.noneOf(FileVisitOption.class), maxDepth,
+                    new SimpleFileVisitor<Path>() {
+                        @Override
+                        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                            if (isSongFile(file.toFile())) {
+                                files.add(file.toFile());
+                            }
+                            return FileVisitResult.CONTINUE;
+                        }
 
-        // Create a fixed thread pool with a size based on available processors
-        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
-        List<Future<Song>> futures = new ArrayList<>();
+                        @Override
+                        public FileVisitResult visitFileFailed(Path file, IOException e) {
+                            logger.warn("Unable to read '" + file + "': " + e.getMessage());
+                            return FileVisitResult.CONTINUE;
+                        }
+                    });
+        } catch (IOException e) {
+            logger.error("Exception walking folder '" + folder.getAbsolutePath() + "'", e);
+            return;
+        }
+        readSongs(files, title, likedOnly, consumer);
+    }
 
-        for (File file : IPIterator.wrap(files, folder.getName(), files.length)) {
+    /**
+     * get the liked songs of specific song files
+     *
+     * @param files - song files to read
+     * @return - song file and its song, only for liked songs
+     * @throws java.lang.InterruptedException - when user interrupts
+     */
+    public static LinkedHashMap<File, Song> getLikedSongs(ArrayList<File> files) throws InterruptedException {
+        LinkedHashMap<File, Song> likedSongs = new LinkedHashMap<>();
+        if (files == null) {
+            logger.debug("null files provided in getLikedSongs");
+            return likedSongs;
+        }
+        ArrayList<File> songFiles = new ArrayList<>();
+        for (File file : files) {
             if (isSongFile(file)) {
-                Callable<Song> task = () -> getSong(file);
-                futures.add(executor.submit(task));
+                songFiles.add(file);
             }
         }
+        readSongs(songFiles, "Liked Songs", true, likedSongs::put);
+        return likedSongs;
+    }
 
-        for (Future<Song> future : futures) {
-            try {
-                Song song = future.get();
-                if (song != null) {
-                    songs.add(song);
+    private static void readSongs(ArrayList<File> files, String title, boolean likedOnly,
+            BiConsumer<File, Song> consumer) throws InterruptedException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = ExecutorRegistry.get("upload", threads);
+        LinkedBlockingQueue<Entry<File, Song>> results = new LinkedBlockingQueue<>();
+        Set<CompletableFuture<Song>> running = ConcurrentHashMap.newKeySet();
+        int pending = 0;
+        try (IPIterator<?> pb = IPIterator.manual(title, files.size())) {
+            for (File file : files) {
+                while (pending >= threads * 4) {
+                    pending -= takeResult(results, consumer, pb);
                 }
-            } catch (ExecutionException e) {
-                logger.error("Exception processing song file", e);
+                CompletableFuture<Song> future = CompletableFuture.supplyAsync(() -> {
+                    TrackMetadata metadata = readTrackMetadata(file);
+                    if (likedOnly && (metadata == null || !metadata.isLiked())) {
+                        return null;
+                    }
+                    return toSong(file, metadata);
+                }, executor).thenCompose(Upload::verifySong);
+                running.add(future);
+                future.whenComplete((song, e) -> {
+                    running.remove(future);
+                    if (e != null && !(e instanceof CancellationException)) {
+                        logger.error("Exception processing song file '" + file.getAbsolutePath() + "'", e);
+                    }
+                    results.add(new AbstractMap.SimpleEntry<>(file, song));
+                });
+                pending++;
+            }
+            while (pending > 0) {
+                pending -= takeResult(results, consumer, pb);
+            }
+        } finally {
+            // the executor is shared, only drop what is left of this walk
+            for (CompletableFuture<Song> future : running) {
+                future.cancel(false);
             }
         }
-        executor.shutdown();
-        return songs;
+    }
+
+    private static int takeResult(LinkedBlockingQueue<Entry<File, Song>> results, BiConsumer<File, Song> consumer,
+            IPIterator<?> pb) throws InterruptedException {
+        // the timeout is only to check for interruptions
+        Entry<File, Song> result = results.poll(1, TimeUnit.SECONDS);
+        InterruptionHandler.checkGlobalInterruption();
+        if (result == null) {
+            return 0;
+        }
+        pb.step(result.getKey().getName());
+        if (result.getValue() != null) {
+            consumer.accept(result.getKey(), result.getValue());
+        }
+        return 1;
     }
 
     /**
@@ -362,49 +476,111 @@ public class Upload implements Import {
      * @throws java.lang.InterruptedException - when user interrupts
      */
     public static Song getSong(File file) throws InterruptedException {
+        return getLibrarySong(readSong(file));
+    }
+
+    /**
+     * look up song in the library
+     *
+     * @param song - song read from a file
+     * @return - the library song, the song itself when there is no library or
+     *         null when it has to be verified
+     * @throws java.lang.InterruptedException - when user interrupts
+     */
+    private static Song getLibrarySong(Song song) throws InterruptedException {
+        if (song != null && library != null) {
+            Song foundSong = library.getSong(song);
+            if (foundSong != null) {
+                song = foundSong;
+            } else if (Settings.libraryVerified) {
+                song = null;
+            }
+        }
+        return song;
+    }
+
+    /**
+     * look up song in the library without blocking
+     *
+     * @param song - song read from a file
+     * @return - future completing with the library song, the song itself when
+     *         there is no library or null when it has to be verified
+     */
+    private static CompletableFuture<Song> verifySong(Song song) {
+        if (song == null || library == null) {
+            return CompletableFuture.completedFuture(song);
+        }
+        return library.getSongAsync(song).thenApply(foundSong -> {
+            if (foundSong != null) {
+                return foundSong;
+            }
+            if (Settings.libraryVerified) {
+                return null;
+            }
+            return song;
+        });
+    }
+
+    private static Song readSong(File file) {
         if (file == null || !file.exists()) {
-            logger.debug("null or non existant file provided in getSong");
+            logger.debug("null or non existant file provided in readSong");
             return null;
         }
         if (!isSongFile(file)) {
             logger.debug("provided file is not in extensions: '" + file.getAbsolutePath() + "'");
             return null;
         }
-        Song song = new Song(file.getName().substring(0, file.getName().lastIndexOf('.')));
+        return toSong(file, readTrackMetadata(file));
+    }
+
+    /**
+     * read the metadata of a song file, all scans read a file only once
+     * unchanged files are served from the ScanIndex without opening them
+     *
+     * @param file - song file
+     * @return - TrackMetadata or null if unable to read
+     */
+    private static TrackMetadata readTrackMetadata(File file) {
+        TrackMetadata metadata = ScanIndex.get(file);
+        if (metadata != null) {
+            return metadata;
+        }
         try {
-            LinkedHashMap<FieldKey, String> songData = MusicTools.readMetaData(file);
-            if (songData != null) {
-                if (songData.get(FieldKey.TITLE) != null) {
-                    song.setName(songData.get(FieldKey.TITLE));
-                }
-                if (songData.get(FieldKey.ARTIST) != null) {
-                    String artistList = songData.get(FieldKey.ARTIST);
-                    String[] artists = artistList.split(";");
-                    for (String artist : artists) {
-                        song.addArtist(new Artist(artist.strip()));
-                    }
-                }
-                if (songData.get(FieldKey.MUSICBRAINZ_RELEASEID) != null) {
-                    song.addId("mbid", songData.get(FieldKey.MUSICBRAINZ_RELEASEID));
-                }
-                if (songData.get(FieldKey.ALBUM) != null) {
-                    song.setAlbumName(songData.get(FieldKey.ALBUM));
-                }
-                Duration duration = MusicTools.getSongDuration(file);
-                if (!duration.isZero()) {
-                    song.setDuration(duration);
-                }
-            }
+            metadata = MusicTools.readTrackMetadata(file);
+            ScanIndex.put(file, metadata);
+            return metadata;
         } catch (Exception e) {
             logger.error("Unable to read file '" + file.getAbsolutePath() + "' metadata", e);
+            return null;
         }
-        if (library != null) {
-            Song foundSong = library.getSong(song);
-            if (foundSong != null) {
-                song = foundSong;
-            } else if (Settings.libraryVerified) {
-                song = null;
-            }
+    }
+
+    /**
+     * construct song from its file and metadata
+     *
+     * @param file     - song file, its name is used when the title is missing
+     * @param metadata - metadata of the song file, can be null
+     * @return - constructed Song
+     */
+    private static Song toSong(File file, TrackMetadata metadata) {
+        Song song = new Song(file.getName().substring(0, file.getName().lastIndexOf('.')));
+        if (metadata == null) {
+            return song;
+        }
+        if (metadata.getTitle() != null) {
+            song.setName(metadata.getTitle());
+        }
+        for (String artist : metadata.getArtists()) {
+            song.addArtist(new Artist(artist));
+        }
+        if (metadata.getMbid() != null) {
+            song.addId("mbid", metadata.getMbid());
+        }
+        if (metadata.getAlbum() != null) {
+            song.setAlbumName(metadata.getAlbum());
+        }
+        if (!metadata.getDuration().isZero()) {
+            song.setDuration(metadata.getDuration());
         }
         return song;
     }
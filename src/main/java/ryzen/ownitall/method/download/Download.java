@@ -4,14 +4,12 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.RejectedExecutionException;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.Map.Entry;
 
 import org.jaudiotagger.tag.FieldKey;
 
@@ -25,13 +23,13 @@ import ryzen.ownitall.classes.Song;
 import ryzen.ownitall.method.Upload;
 import ryzen.ownitall.method.interfaces.Export;
 import ryzen.ownitall.method.interfaces.Sync;
+import ryzen.ownitall.util.ArtworkCache;
 import ryzen.ownitall.util.ClassLoader;
 import ryzen.ownitall.util.FileTools;
 import ryzen.ownitall.util.IPIterator;
 import ryzen.ownitall.util.InterruptionHandler;
 import ryzen.ownitall.util.Logger;
 import ryzen.ownitall.util.MusicTools;
-import ryzen.ownitall.util.WebTools;
 import ryzen.ownitall.util.exceptions.AuthenticationException;
 import ryzen.ownitall.util.exceptions.MissingSettingException;
 
@@ -48,7 +46,12 @@ public class Download implements Sync, Export {
     // deezer
     // tidal
     private static final Logger logger = new Logger(Download.class);
-    private ExecutorService executor;
+    private DownloadScheduler resolver;
+    private DownloadScheduler scheduler;
+    private DownloadScheduler tagger;
+    // songs waiting to be downloaded in one batch
+    private final Object batchLock = new Object();
+    private ArrayList<Song> batch = new ArrayList<>();
     // currently needed to prevent infinite looping of constructors
     private static boolean initiation = false;
     private DownloadInterface downloadClass;
@@ -107,9 +110,14 @@ public class Download implements Sync, Export {
      * <p>
      * threadDownload.
      * </p>
+     * songs pass three stages, each with its own workers: resolve (looking up
+     * where to download from), fetch (the download tool) and tag (metadata and
+     * moving into the library)
+     * a stage blocks when the next one has no free worker, so slow lookups do
+     * not take download workers and downloads do not pile up
+     * blocks until one of the resolve threads is free
      *
      * @param song a {@link ryzen.ownitall.classes.Song} object
-     * @param path a {@link java.io.File} object
      * @throws java.lang.InterruptedException if any.
      */
     public void threadDownload(Song song) throws InterruptedException {
@@ -117,54 +125,108 @@ public class Download implements Sync, Export {
             logger.debug("null song or path provided in threadDownload");
             return;
         }
-        if (this.executor == null || this.executor.isShutdown()) {
-            this.threadInit();
+        // created here so the stages never race on creating them
+        if (this.resolver == null || this.resolver.isShutdown()) {
+            this.resolver = new DownloadScheduler("resolve", Settings.downloadResolveThreads);
+        }
+        if (this.scheduler == null || this.scheduler.isShutdown()) {
+            this.scheduler = new DownloadScheduler(downloadThreads);
         }
-        while (true) {
+        if (this.tagger == null || this.tagger.isShutdown()) {
+            this.tagger = new DownloadScheduler("tag", Runtime.getRuntime().availableProcessors());
+        }
+        this.resolver.submit(() -> {
+            if (!DownloadLedger.isPending(song)) {
+                return;
+            }
             try {
-                InterruptionHandler.checkGlobalInterruption();
-                // Attempt to execute the task
-                this.executor.execute(() -> {
-                    this.exportSong(song);
-                });
-                break;
-            } catch (RejectedExecutionException e) {
-                Thread.sleep(1000);
+                downloadClass.resolve(song);
+                this.threadFetch(song);
+            } catch (InterruptedException e) {
+                logger.debug("Interrupted while resolving song");
+                InterruptionHandler.forceInterruption();
+            }
+        });
+    }
+
+    private void threadFetch(Song song) throws InterruptedException {
+        if (Settings.downloadBatchSize > 1) {
+            ArrayList<Song> songs;
+            synchronized (this.batchLock) {
+                this.batch.add(song);
+                if (this.batch.size() < Settings.downloadBatchSize) {
+                    return;
+                }
+                songs = this.batch;
+                this.batch = new ArrayList<>();
             }
+            this.scheduler.submit(() -> {
+                this.exportBatch(songs);
+            });
+            return;
         }
+        this.scheduler.submit(() -> {
+            this.exportSong(song);
+        });
     }
 
-    /**
-     * setup threading
-     */
-    public void threadInit() {
-        this.executor = new ThreadPoolExecutor(
-                downloadThreads,
-                downloadThreads,
-                0L,
-                TimeUnit.MILLISECONDS,
-                new LinkedBlockingQueue<Runnable>(downloadThreads));
+    private void threadBatch() throws InterruptedException {
+        ArrayList<Song> songs;
+        synchronized (this.batchLock) {
+            if (this.batch.isEmpty()) {
+                return;
+            }
+            songs = this.batch;
+            this.batch = new ArrayList<>();
+        }
+        this.scheduler.submit(() -> {
+            this.exportBatch(songs);
+        });
+    }
+
+    private void threadTag(Song song, File downloadFile, File songFile) throws InterruptedException {
+        if (this.tagger == null || this.tagger.isShutdown()) {
+            // downloaded outside of threadDownload
+            this.tagSong(song, downloadFile, songFile);
+            return;
+        }
+        this.tagger.submit(() -> {
+            this.tagSong(song, downloadFile, songFile);
+        });
     }
 
     /**
-     * shut down all threads
+     * wait for all downloads to finish and clean up their leftovers
      *
      * @throws java.lang.InterruptedException - if user interrupts while waiting
      */
-    public void threadShutdown() throws InterruptedException {
-        if (this.executor == null || this.executor.isShutdown()) {
-            return;
+    public void threadAwait() throws InterruptedException {
+        // every stage only gets work from the one before it
+        if (this.resolver != null && !this.resolver.isShutdown()) {
+            this.resolver.awaitIdle();
         }
-        this.executor.shutdown();
-        logger.debug("Awaiting current threads to shutdown (max 10 min)");
-        try {
-            this.executor.awaitTermination(10, TimeUnit.MINUTES);
-            logger.debug("All threads shut down");
-        } catch (InterruptedException e) {
-            this.executor.shutdownNow();
-            logger.debug("All threads forcibly shut down");
-            throw e;
+        if (this.scheduler != null && !this.scheduler.isShutdown()) {
+            this.threadBatch();
+            this.scheduler.awaitIdle();
+        }
+        if (this.tagger != null && !this.tagger.isShutdown()) {
+            this.tagger.awaitIdle();
+        }
+        DownloadLedger.flush();
+        this.cleanFolder();
+    }
+
+    private void threadShutdownNow() {
+        synchronized (this.batchLock) {
+            this.batch.clear();
+        }
+        for (DownloadScheduler stage : new DownloadScheduler[] { this.resolver, this.scheduler, this.tagger }) {
+            if (stage != null) {
+                stage.shutdownNow();
+            }
         }
+        // keeps what was downloaded so far, so the next run resumes
+        DownloadLedger.flush();
     }
 
     /**
@@ -176,14 +238,31 @@ public class Download implements Sync, Export {
      * @param path a {@link java.io.File} object
      */
     public void exportSong(Song song) {
+        if (!DownloadLedger.running(song)) {
+            return;
+        }
+        this.downloadSong(song);
+    }
+
+    /**
+     * download a song which is marked as running in the DownloadLedger
+     *
+     * @param song - song to download
+     */
+    private void downloadSong(Song song) {
         try {
-            File downloadFile = new File(Settings.localFolder,
-                    String.valueOf(song.hashCode()) + "." + Settings.downloadFormat);
+            // unique per download, only the name is kept as the download tool
+            // does not overwrite existing files
+            Path downloadPath = Files.createTempFile(Settings.localFolder.toPath(), "dl-",
+                    "." + Settings.downloadFormat);
+            Files.delete(downloadPath);
+            File downloadFile = downloadPath.toFile();
             ArrayList<String> command = downloadClass.createCommand(song, downloadFile);
             ProcessBuilder processBuilder = new ProcessBuilder(command);
             processBuilder.redirectErrorStream(true); // Merge stdout and stderr
             File songFile = new File(Settings.localFolder, Collection.getRelativeSongPath(song).toString());
             StringBuilder completeLog = new StringBuilder();
+            int exitCode = 0;
             for (int i = 0; i < retries; i++) {
                 if (songFile.exists()) {
                     logger.debug("Skipping song '" + song.getName() + "', already exists");
@@ -197,7 +276,7 @@ public class Download implements Sync, Export {
                         completeLog.append(line).append("\n");
                     }
                 }
-                int exitCode = process.waitFor();
+                exitCode = process.waitFor();
                 if (exitCode != 0) {
                     logger.debug("Attempt: " + i);
                     downloadClass.handleError(exitCode);
@@ -205,27 +284,185 @@ public class Download implements Sync, Export {
                             "Command: " + command.toString() + "\n Complete log \n: " + completeLog.toString());
                 }
                 if (downloadFile.exists()) {
-                    songFile.getParentFile().mkdirs();
-                    if (!downloadFile.renameTo(songFile)) {
-                        logger.warn("Unable to move downloaded song '" + song.getName() + "' from '"
-                                + downloadFile.getAbsolutePath() + "'");
-                    }
                     break;
                 }
             }
-            if (songFile.exists()) {
-                writeMetaData(song, songFile);
+            if (downloadFile.exists()) {
+                this.threadTag(song, downloadFile, songFile);
+            } else if (songFile.exists()) {
+                this.threadTag(song, null, songFile);
             } else {
                 logger.warn("song '" + song.toString() + "' failed to download, check logs");
                 logger.debug("Complete download log: " + completeLog.toString());
+                DownloadLedger.failed(song, "not downloaded after " + retries + " attempts (exit code "
+                        + exitCode + ")");
             }
         } catch (InterruptedException e) {
             logger.debug("Interrupted while downloading song");
+            DownloadLedger.pending(song);
             InterruptionHandler.forceInterruption();
         } catch (IOException e) {
             logger.error("Exception preparing " + downloadClass.getClass().getSimpleName() + ": ", e);
+            DownloadLedger.pending(song);
         } catch (DownloadException e) {
+            // problem with the download tool, not with the song
             logger.warn("Exception while downloading: " + e.getMessage());
+            DownloadLedger.pending(song);
+        }
+    }
+
+    /**
+     * download multiple songs with one process of the download tool
+     * songs which are not in the batch output are downloaded separately after
+     *
+     * @param songs - songs to download
+     */
+    public void exportBatch(ArrayList<Song> songs) {
+        if (songs == null) {
+            logger.debug("null songs provided in exportBatch");
+            return;
+        }
+        // batch entry -> song
+        LinkedHashMap<String, Song> entries = new LinkedHashMap<>();
+        ArrayList<Song> single = new ArrayList<>();
+        File batchFile = null;
+        boolean batchFailed = false;
+        try {
+            for (Song song : songs) {
+                if (!DownloadLedger.running(song)) {
+                    continue;
+                }
+                // kept with the single songs until handed over, so it is released
+                // when interrupted
+                single.add(song);
+                File songFile = new File(Settings.localFolder, Collection.getRelativeSongPath(song).toString());
+                if (songFile.exists()) {
+                    logger.debug("Skipping song '" + song.getName() + "', already exists");
+                    this.threadTag(song, null, songFile);
+                    single.remove(single.size() - 1);
+                    continue;
+                }
+                String entry = downloadClass.createBatchEntry(song);
+                if (entry != null && !entries.containsKey(entry)) {
+                    single.remove(single.size() - 1);
+                    entries.put(entry, song);
+                }
+            }
+            if (!entries.isEmpty()) {
+                batchFile = Files.createTempFile(Settings.localFolder.toPath(), "batch-", ".txt").toFile();
+                this.runBatch(entries, batchFile);
+            }
+            // not found or filtered out, retried with its own process
+            single.addAll(entries.values());
+            entries.clear();
+        } catch (InterruptedException e) {
+            logger.debug("Interrupted while downloading batch");
+            batchFailed = true;
+            InterruptionHandler.forceInterruption();
+        } catch (IOException e) {
+            logger.error("Exception preparing " + downloadClass.getClass().getSimpleName() + ": ", e);
+            batchFailed = true;
+        } catch (DownloadException e) {
+            // problem with the download tool, not with the songs
+            logger.warn("Exception while downloading: " + e.getMessage());
+            batchFailed = true;
+        } finally {
+            for (Song song : entries.values()) {
+                DownloadLedger.pending(song);
+            }
+            if (batchFile != null && batchFile.exists()) {
+                batchFile.delete();
+            }
+        }
+        for (Song song : single) {
+            if (batchFailed || InterruptionHandler.isInterrupted()) {
+                DownloadLedger.pending(song);
+                continue;
+            }
+            this.downloadSong(song);
+        }
+    }
+
+    /**
+     * run one download process for all entries of a batch
+     * downloaded songs are removed from the entries
+     *
+     * @param entries   - batch entry and its song
+     * @param batchFile - file to write the batch entries to
+     * @throws InterruptedException - when user interrupts
+     * @throws IOException          - when unable to write batch file or start
+     *                              the download tool
+     * @throws DownloadException    - when the download tool fails
+     */
+    private void runBatch(LinkedHashMap<String, Song> entries, File batchFile)
+            throws InterruptedException, IOException, DownloadException {
+        ArrayList<String> command = downloadClass.createBatchCommand(batchFile, Settings.localFolder);
+        if (command == null) {
+            // download method does not support batches
+            return;
+        }
+        FileTools.writeData(batchFile, String.join("\n", entries.keySet()) + "\n");
+        ProcessBuilder processBuilder = new ProcessBuilder(command);
+        processBuilder.redirectErrorStream(true); // Merge stdout and stderr
+        StringBuilder completeLog = new StringBuilder();
+        Process process = processBuilder.start();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Entry<String, File> result = downloadClass.parseBatchResult(line);
+                if (result == null) {
+                    completeLog.append(line).append("\n");
+                    continue;
+                }
+                Song song = entries.get(result.getKey());
+                if (song == null) {
+                    logger.debug("Unknown batch result: '" + line + "'");
+                    continue;
+                }
+                if (!result.getValue().exists()) {
+                    logger.debug("Missing batch result: '" + line + "'");
+                    continue;
+                }
+                File songFile = new File(Settings.localFolder,
+                        Collection.getRelativeSongPath(song).toString());
+                this.threadTag(song, result.getValue(), songFile);
+                entries.remove(result.getKey());
+            }
+        }
+        int exitCode = process.waitFor();
+        if (exitCode != 0) {
+            downloadClass.handleError(exitCode);
+            logger.debug("Command: " + command.toString() + "\n Complete log \n: " + completeLog.toString());
+        }
+    }
+
+    /**
+     * write the metadata of a downloaded song and move it into the library
+     * the metadata is written before moving, so a song file is always complete
+     *
+     * @param song         - downloaded song
+     * @param downloadFile - file the song was downloaded to, null if the song
+     *                     file already exists
+     * @param songFile     - file of the song in the library
+     */
+    public void tagSong(Song song, File downloadFile, File songFile) {
+        if (song == null || songFile == null) {
+            logger.debug("null song or songFile provided in tagSong");
+            return;
+        }
+        if (downloadFile == null) {
+            writeMetaData(song, songFile);
+            DownloadLedger.done(song);
+            return;
+        }
+        writeMetaData(song, downloadFile);
+        songFile.getParentFile().mkdirs();
+        if (downloadFile.renameTo(songFile)) {
+            DownloadLedger.done(song);
+        } else {
+            logger.warn("Unable to move downloaded song '" + song.getName() + "' from '"
+                    + downloadFile.getAbsolutePath() + "'");
+            DownloadLedger.failed(song, "unable to move downloaded file");
         }
     }
 
@@ -293,7 +530,7 @@ public class Download implements Sync, Export {
         }
         try {
             if (playlist.getCoverImage() != null) {
-                WebTools.downloadImage(playlist.getCoverImage(),
+                ArtworkCache.copy(playlist.getCoverImage(),
                         new File(Settings.localFolder, Collection.getCoverFileName(playlist)));
             }
         } catch (IOException e) {
@@ -337,7 +574,7 @@ public class Download implements Sync, Export {
         }
         try {
             if (album.getCoverImage() != null) {
-                WebTools.downloadImage(album.getCoverImage(),
+                ArtworkCache.copy(album.getCoverImage(),
                         new File(folder, Collection.getCoverFileName(album)));
             }
         } catch (IOException e) {
@@ -388,6 +625,7 @@ public class Download implements Sync, Export {
                 File songFile = new File(Settings.localFolder, Collection.getRelativeSongPath(song).toString());
                 if (songFile.exists()) {
                     if (songFile.delete()) {
+                        DownloadLedger.forget(song);
                         logger.info("Deleted liked song '" + songFile.getAbsolutePath());
                     } else {
                         logger.warn("Failed to delete liked song: " + songFile.getAbsolutePath());
@@ -412,12 +650,11 @@ public class Download implements Sync, Export {
             for (Song song : IPIterator.wrap(songs, "Liked Songs", songs.size())) {
                 this.threadDownload(song);
             }
+            this.threadAwait();
         } catch (InterruptedException e) {
-            this.executor.shutdownNow();
+            this.threadShutdownNow();
             throw e;
         }
-        this.threadShutdown();
-        this.cleanFolder();
     }
 
     /**
@@ -430,7 +667,8 @@ public class Download implements Sync, Export {
         logger.debug("Getting local playlists to remove mismatches");
         ArrayList<Playlist> playlists = new Upload().getPlaylists();
         if (playlists != null && !playlists.isEmpty()) {
-            playlists.removeAll(Collection.getPlaylists());
+            // fuzzy matched, local playlists do not have the ids of the collection
+            playlists.removeIf(playlist -> Collection.getPlaylist(playlist) != null);
             for (Playlist playlist : IPIterator.wrap(playlists, "Playlists", playlists.size())) {
                 // deletes all playlists songs
                 this.syncPlaylist(new Playlist(playlist.getName()));
@@ -455,8 +693,16 @@ public class Download implements Sync, Export {
     @Override
     public void uploadPlaylists() throws InterruptedException {
         ArrayList<Playlist> playlists = Collection.getPlaylists();
-        for (Playlist playlist : IPIterator.wrap(playlists, "Playlists", playlists.size())) {
-            this.uploadPlaylist(playlist);
+        try {
+            // downloads of the next playlist start while the last of the previous
+            // are still running
+            for (Playlist playlist : IPIterator.wrap(playlists, "Playlists", playlists.size())) {
+                this.queuePlaylist(playlist);
+            }
+            this.threadAwait();
+        } catch (InterruptedException e) {
+            this.threadShutdownNow();
+            throw e;
         }
     }
 
@@ -488,6 +734,7 @@ public class Download implements Sync, Export {
                 File songFile = new File(Settings.localFolder, Collection.getRelativeSongPath(song).toString());
                 if (songFile.exists()) {
                     if (songFile.delete()) {
+                        DownloadLedger.forget(song);
                         logger.info("Deleted playlist '" + playlist.getName() + "' song: "
                                 + songFile.getAbsolutePath());
                     } else {
@@ -506,22 +753,25 @@ public class Download implements Sync, Export {
      */
     @Override
     public void uploadPlaylist(Playlist playlist) throws InterruptedException {
+        try {
+            this.queuePlaylist(playlist);
+            this.threadAwait();
+        } catch (InterruptedException e) {
+            this.threadShutdownNow();
+            throw e;
+        }
+    }
+
+    private void queuePlaylist(Playlist playlist) throws InterruptedException {
         if (playlist == null) {
-            logger.debug("null playlist provided in downloadPlaylist");
+            logger.debug("null playlist provided in queuePlaylist");
             return;
         }
         ArrayList<Song> songs = Collection.getStandalonePlaylistSongs(playlist);
         this.writePlaylistData(playlist);
-        try {
-            for (Song song : IPIterator.wrap(songs, playlist.getName(), playlist.size())) {
-                this.threadDownload(song);
-            }
-        } catch (InterruptedException e) {
-            this.executor.shutdownNow();
-            throw e;
+        for (Song song : IPIterator.wrap(songs, playlist.getName(), playlist.size())) {
+            this.threadDownload(song);
         }
-        this.threadShutdown();
-        this.cleanFolder();
     }
 
     /**
@@ -534,11 +784,15 @@ public class Download implements Sync, Export {
         logger.debug("Getting local albums to remove mismatches");
         ArrayList<Album> albums = new Upload().getAlbums();
         if (albums != null && !albums.isEmpty()) {
-            albums.removeAll(Collection.getAlbums());
+            // fuzzy matched, local albums do not have the artists of the collection
+            albums.removeIf(album -> Collection.getAlbum(album) != null);
             for (Album album : IPIterator.wrap(albums.iterator(), "Albums", albums.size())) {
                 File albumFolder = new File(Settings.localFolder, FileTools.sanitizeFileName(album.getName()));
                 if (albumFolder.exists()) {
                     if (FileTools.deleteFolder(albumFolder)) {
+                        for (Song song : album.getSongs()) {
+                            DownloadLedger.forget(song);
+                        }
                         logger.info(
                                 "Deleted album '" + album.getName() + "'' folder: " + albumFolder.getAbsolutePath());
                     } else {
@@ -558,8 +812,16 @@ public class Download implements Sync, Export {
     @Override
     public void uploadAlbums() throws InterruptedException {
         ArrayList<Album> albums = Collection.getAlbums();
-        for (Album album : IPIterator.wrap(albums, "Albums", albums.size())) {
-            this.uploadAlbum(album);
+        try {
+            // downloads of the next album start while the last of the previous
+            // are still running
+            for (Album album : IPIterator.wrap(albums, "Albums", albums.size())) {
+                this.queueAlbum(album);
+            }
+            this.threadAwait();
+        } catch (InterruptedException e) {
+            this.threadShutdownNow();
+            throw e;
         }
     }
 
@@ -580,6 +842,7 @@ public class Download implements Sync, Export {
                 File songFile = new File(Settings.localFolder, Collection.getRelativeSongPath(song).toString());
                 if (songFile.exists()) {
                     if (songFile.delete()) {
+                        DownloadLedger.forget(song);
                         logger.info("Deleted album '" + album.getName() + "' song: "
                                 + songFile.getAbsolutePath());
                     } else {
@@ -599,21 +862,24 @@ public class Download implements Sync, Export {
      */
     @Override
     public void uploadAlbum(Album album) throws InterruptedException {
+        try {
+            this.queueAlbum(album);
+            this.threadAwait();
+        } catch (InterruptedException e) {
+            this.threadShutdownNow();
+            throw e;
+        }
+    }
+
+    private void queueAlbum(Album album) throws InterruptedException {
         if (album == null) {
-            logger.debug("null album provided in downloadAlbum");
+            logger.debug("null album provided in queueAlbum");
             return;
         }
         // albums are always in a folder
-        try {
-            this.writeAlbumData(album);
-            for (Song song : IPIterator.wrap(album.getSongs(), album.getName(), album.size())) {
-                this.threadDownload(song);
-            }
-        } catch (InterruptedException e) {
-            this.executor.shutdownNow();
-            throw e;
+        this.writeAlbumData(album);
+        for (Song song : IPIterator.wrap(album.getSongs(), album.getName(), album.size())) {
+            this.threadDownload(song);
         }
-        this.threadShutdown();
-        this.cleanFolder();
     }
 }
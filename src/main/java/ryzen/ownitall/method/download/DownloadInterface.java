@@ -2,6 +2,7 @@ package ryzen.ownitall.method.download;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Map.Entry;
 
 import ryzen.ownitall.classes.Song;
 
@@ -17,4 +18,49 @@ public interface DownloadInterface {
     public ArrayList<String> createCommand(Song song, File downloadFile) throws InterruptedException;
 
     public void handleError(int errorCode) throws DownloadException;
+
+    /**
+     * look up where to download a song from, ex: its id
+     * runs before the download, on the resolve stage
+     *
+     * @param song - song to resolve
+     * @throws InterruptedException - when user interrupts
+     */
+    default void resolve(Song song) throws InterruptedException {
+    }
+
+    /**
+     * line identifying a song in a batch file
+     * null if the download method does not support batches
+     *
+     * @param song - song to download
+     * @return - batch file line
+     * @throws InterruptedException - when user interrupts
+     */
+    default String createBatchEntry(Song song) throws InterruptedException {
+        return null;
+    }
+
+    /**
+     * command downloading every entry of a batch file with one process
+     * null if the download method does not support batches
+     *
+     * @param batchFile      - file with one entry per line
+     * @param downloadFolder - folder to download to
+     * @return - command
+     */
+    default ArrayList<String> createBatchCommand(File batchFile, File downloadFolder) {
+        return null;
+    }
+
+    /**
+     * parse a line of the batch command output
+     *
+     * @param line - output line
+     * @return - batch entry and the file it was downloaded to, null if the line
+     *         is not a result
+     */
+    default Entry<String, File> parseBatchResult(String line) {
+        return null;
+    }
 }
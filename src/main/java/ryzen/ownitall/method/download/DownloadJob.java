@@ -0,0 +1,96 @@
+package ryzen.ownitall.method.download;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * <p>
+ * DownloadJob class.
+ * </p>
+ * state of the download of a single song, stored in the DownloadLedger
+ *
+ * @author ryzen
+ */
+public class DownloadJob {
+    /**
+     * download states
+     */
+    public enum State {
+        PENDING, RUNNING, DONE, FAILED
+    }
+
+    private final State state;
+    private final int attempts;
+    private final String reason;
+    private final long updated;
+
+    /**
+     * default DownloadJob constructor
+     *
+     * @param state    - state of the download
+     * @param attempts - amount of runs in which the download failed
+     * @param reason   - reason of the last failure, null if none
+     * @param updated  - time of the last state change (epoch millis)
+     */
+    @JsonCreator
+    public DownloadJob(@JsonProperty("state") State state, @JsonProperty("attempts") int attempts,
+            @JsonProperty("reason") String reason, @JsonProperty("updated") long updated) {
+        this.state = state;
+        this.attempts = attempts;
+        this.reason = reason;
+        this.updated = updated;
+    }
+
+    /**
+     * <p>
+     * Getter for the field <code>state</code>.
+     * </p>
+     *
+     * @return a {@link ryzen.ownitall.method.download.DownloadJob.State} object
+     */
+    public State getState() {
+        return this.state;
+    }
+
+    /**
+     * <p>
+     * Getter for the field <code>attempts</code>.
+     * </p>
+     *
+     * @return a int
+     */
+    public int getAttempts() {
+        return this.attempts;
+    }
+
+    /**
+     * <p>
+     * Getter for the field <code>reason</code>.
+     * </p>
+     *
+     * @return a {@link java.lang.String} object
+     */
+    public String getReason() {
+        return this.reason;
+    }
+
+    /**
+     * <p>
+     * Getter for the field <code>updated</code>.
+     * </p>
+     *
+     * @return a long
+     */
+    public long getUpdated() {
+        return this.updated;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        if (this.reason != null) {
+            return this.state + " (" + this.attempts + " attempts): " + this.reason;
+        }
+        return this.state + " (" + this.attempts + " attempts)";
+    }
+}
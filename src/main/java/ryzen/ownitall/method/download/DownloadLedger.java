@@ -0,0 +1,221 @@
+package ryzen.ownitall.method.download;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import ryzen.ownitall.Collection;
+import ryzen.ownitall.Settings;
+import ryzen.ownitall.Storage;
+import ryzen.ownitall.classes.Song;
+import ryzen.ownitall.method.download.DownloadJob.State;
+import ryzen.ownitall.util.Logger;
+import ryzen.ownitall.util.MappedCache;
+
+/**
+ * <p>
+ * DownloadLedger class.
+ * </p>
+ * persistent state of every song download, so an interrupted download resumes
+ * where it stopped
+ * downloaded songs are skipped without checking the song file, failed songs
+ * are only retried after a delay which doubles with every failed run
+ *
+ * @author ryzen
+ */
+public class DownloadLedger {
+    private static final Logger logger = new Logger(DownloadLedger.class);
+    private static MappedCache<DownloadJob> jobs;
+    // songs being downloaded by this run, a stored running state without it
+    // is a download which was interrupted
+    private static final Set<String> active = ConcurrentHashMap.newKeySet();
+
+    private static synchronized MappedCache<DownloadJob> getJobs() {
+        if (jobs == null) {
+            jobs = Storage.openDownloadLedger();
+        }
+        return jobs;
+    }
+
+    private static String getKey(Song song) {
+        // the local folder is part of the key, songs are downloaded again to a
+        // new local folder
+        return new File(Settings.localFolder, Collection.getRelativeSongPath(song).toString()).getAbsolutePath();
+    }
+
+    /**
+     * get the download state of a song
+     *
+     * @param song - song to get state of
+     * @return - DownloadJob or null if never downloaded
+     */
+    public static DownloadJob get(Song song) {
+        if (song == null) {
+            logger.debug("null song provided in get");
+            return null;
+        }
+        MappedCache<DownloadJob> ledger = getJobs();
+        if (ledger == null) {
+            return null;
+        }
+        return ledger.get(getKey(song));
+    }
+
+    /**
+     * check if a song has to be downloaded
+     * false if already downloaded or if it failed before and the retry delay
+     * did not pass yet
+     *
+     * @param song - song to check
+     * @return - true if song has to be downloaded
+     */
+    public static boolean isPending(Song song) {
+        DownloadJob job = get(song);
+        if (job == null) {
+            return true;
+        }
+        if (job.getState() == State.DONE) {
+            return false;
+        }
+        if (job.getState() == State.FAILED) {
+            long retryAt = job.getUpdated() + getRetryDelay(job.getAttempts());
+            if (retryAt > System.currentTimeMillis()) {
+                logger.debug("Skipping song '" + song.getName() + "' until " + new Date(retryAt)
+                        + ", last download " + job);
+                return false;
+            }
+        }
+        // pending, running when interrupted or failed long enough ago
+        return true;
+    }
+
+    private static long getRetryDelay(int attempts) {
+        if (Settings.downloadRetryHours <= 0) {
+            return 0;
+        }
+        return Duration.ofHours(Settings.downloadRetryHours).toMillis() << Math.min(Math.max(attempts - 1, 0), 10);
+    }
+
+    /**
+     * mark song as downloading if it has to be downloaded and is not being
+     * downloaded already, ex: when it is in multiple playlists
+     * the song stays claimed until it is marked done, failed or pending
+     *
+     * @param song - song to download
+     * @return - true if the caller has to download the song
+     */
+    public static synchronized boolean running(Song song) {
+        if (song == null) {
+            logger.debug("null song provided in running");
+            return false;
+        }
+        if (!isPending(song)) {
+            return false;
+        }
+        if (!active.add(getKey(song))) {
+            logger.debug("Song '" + song.getName() + "' is already being downloaded");
+            return false;
+        }
+        DownloadJob job = get(song);
+        if (job == null) {
+            put(song, State.RUNNING, 0, null);
+        } else {
+            put(song, State.RUNNING, job.getAttempts(), job.getReason());
+        }
+        return true;
+    }
+
+    /**
+     * mark song as downloaded
+     *
+     * @param song - downloaded song
+     */
+    public static void done(Song song) {
+        put(song, State.DONE, 0, null);
+    }
+
+    /**
+     * mark song as failed, counting one more failed attempt
+     *
+     * @param song   - song which failed to download
+     * @param reason - why it failed
+     */
+    public static void failed(Song song, String reason) {
+        DownloadJob job = get(song);
+        int attempts = 1;
+        if (job != null) {
+            attempts = job.getAttempts() + 1;
+        }
+        put(song, State.FAILED, attempts, reason);
+    }
+
+    /**
+     * mark song as pending again without counting a failed attempt
+     * used when the download did not fail because of the song (interrupted,
+     * download tool errors)
+     *
+     * @param song - song to download again
+     */
+    public static void pending(Song song) {
+        DownloadJob job = get(song);
+        if (job == null) {
+            put(song, State.PENDING, 0, null);
+        } else {
+            put(song, State.PENDING, job.getAttempts(), job.getReason());
+        }
+    }
+
+    /**
+     * forget the download state of a song, used when its file is deleted
+     *
+     * @param song - song of which the file was deleted
+     */
+    public static void forget(Song song) {
+        if (get(song) != null) {
+            put(song, State.PENDING, 0, null);
+        }
+    }
+
+    private static void put(Song song, State state, int attempts, String reason) {
+        if (song == null) {
+            logger.debug("null song provided in put");
+            return;
+        }
+        String key = getKey(song);
+        MappedCache<DownloadJob> ledger = getJobs();
+        if (ledger != null) {
+            ledger.put(key, new DownloadJob(state, attempts, reason, System.currentTimeMillis()));
+        }
+        if (state != State.RUNNING) {
+            active.remove(key);
+        }
+    }
+
+    /**
+     * write all changed download states to disk
+     */
+    public static synchronized void flush() {
+        if (jobs != null) {
+            jobs.flush();
+        }
+    }
+
+    /**
+     * write all changed download states to disk and close the ledger file
+     * it is opened again on the next use
+     */
+    public static synchronized void close() {
+        if (jobs == null) {
+            return;
+        }
+        try {
+            jobs.close();
+        } catch (IOException e) {
+            logger.error("exception closing download ledger", e);
+        }
+        jobs = null;
+    }
+}
@@ -0,0 +1,118 @@
+package ryzen.ownitall.method.download;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import ryzen.ownitall.util.ExecutorRegistry;
+import ryzen.ownitall.util.InterruptionHandler;
+import ryzen.ownitall.util.Logger;
+
+/**
+ * <p>
+ * DownloadScheduler class.
+ * </p>
+ * runs downloads (or another stage of the download pipeline) on a fixed amount
+ * of workers
+ * submitting blocks until a worker is free (back-pressure), so there is no
+ * queue to overflow and a worker picks up the next download as soon as it is
+ * done
+ * workers are kept between albums and playlists, waiting for all downloads is
+ * done using awaitIdle
+ *
+ * @author ryzen
+ */
+public class DownloadScheduler {
+    private static final Logger logger = new Logger(DownloadScheduler.class);
+    private final ExecutorService executor;
+    // one per worker, taken while a download is running
+    private final Semaphore slots;
+    private final int size;
+
+    /**
+     * default DownloadScheduler constructor
+     *
+     * @param threads - amount of downloads running at once
+     */
+    public DownloadScheduler(int threads) {
+        this("download", threads);
+    }
+
+    /**
+     * DownloadScheduler constructor for a named stage of the download pipeline
+     *
+     * @param name    - name of the stage, used to name the threads
+     * @param threads - amount of tasks running at once
+     */
+    public DownloadScheduler(String name, int threads) {
+        this.size = Math.max(threads, 1);
+        this.executor = ExecutorRegistry.create(name, this.size);
+        this.slots = new Semaphore(this.size);
+    }
+
+    /**
+     * run task once a worker is free
+     *
+     * @param task - download to run
+     * @throws InterruptedException - when user interrupts while waiting
+     */
+    public void submit(Runnable task) throws InterruptedException {
+        if (task == null) {
+            logger.debug("null task provided in submit");
+            return;
+        }
+        // returns as soon as a worker is free, the timeout is only to check for
+        // interruptions
+        do {
+            InterruptionHandler.checkGlobalInterruption();
+        } while (!this.slots.tryAcquire(1, TimeUnit.SECONDS));
+        try {
+            this.executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    this.slots.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            this.slots.release();
+            logger.error("Unable to schedule download", e);
+        }
+    }
+
+    /**
+     * wait for all submitted downloads to finish (max 10 min)
+     * the workers are kept for the next downloads
+     *
+     * @throws InterruptedException - when user interrupts while waiting
+     */
+    public void awaitIdle() throws InterruptedException {
+        logger.debug("Awaiting running downloads (max 10 min)");
+        if (this.slots.tryAcquire(this.size, 10, TimeUnit.MINUTES)) {
+            this.slots.release(this.size);
+            logger.debug("All downloads finished");
+        } else {
+            logger.warn("Downloads still running after 10 minutes");
+        }
+    }
+
+    /**
+     * stop all running downloads
+     */
+    public void shutdownNow() {
+        this.executor.shutdownNow();
+        logger.debug("All download threads forcibly shut down");
+    }
+
+    /**
+     * <p>
+     * isShutdown.
+     * </p>
+     *
+     * @return a boolean
+     */
+    public boolean isShutdown() {
+        return this.executor.isShutdown();
+    }
+}
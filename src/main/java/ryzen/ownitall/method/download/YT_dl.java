@@ -1,7 +1,9 @@
 package ryzen.ownitall.method.download;
 
 import java.io.File;
+import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Map.Entry;
 
 import ryzen.ownitall.Settings;
 import ryzen.ownitall.classes.Song;
@@ -19,6 +21,8 @@ import ryzen.ownitall.util.exceptions.MissingSettingException;
  */
 public class YT_dl implements DownloadInterface {
     private static final Logger logger = new Logger(YT_dl.class);
+    private static final String videoUrl = "https://youtube.com/watch?v=";
+    private static final String batchPrefix = "OWNITALL\t";
     private Youtube youtube;
 
     /**
@@ -46,6 +50,111 @@ public class YT_dl implements DownloadInterface {
             logger.debug("null song or downloadFile provided in downloadSong");
             return null;
         }
+        ArrayList<String> command = this.createBaseCommand(downloadFile.getParentFile());
+        // anything here will break if it is false
+        command.add("--break-match-filter");
+        command.add("duration>45&duration<600"); // exclude shorts and videos +30 min
+        command.add("--output");
+        command.add("\"" + downloadFile.getName() + "\""); // https://github.com/ytdl-org/youtube-dl/issues/23115
+        /**
+         * search for video using the query / use url
+         * ^ keep this at the end, incase of fucked up syntax making the other flags
+         * drop
+         */
+        command.add(this.createBatchEntry(song));
+        return command;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * looks up the youtube id, without it yt-dlp searches while downloading
+     */
+    @Override
+    public void resolve(Song song) throws InterruptedException {
+        if (song == null) {
+            logger.debug("null song provided in resolve");
+            return;
+        }
+        if (song.getId("youtube") != null || youtube == null) {
+            return;
+        }
+        String id = youtube.getSongId(song);
+        if (id != null) {
+            song.addId("youtube", id);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * the url of the song or the youtube search query
+     */
+    @Override
+    public String createBatchEntry(Song song) throws InterruptedException {
+        if (song == null) {
+            logger.debug("null song provided in createBatchEntry");
+            return null;
+        }
+        if (song.getId("youtube") != null) {
+            return videoUrl + song.getId("youtube");
+        }
+        // search query filters
+        String searchQuery = song.toString() + " (official audio)"; // youtube search criteria
+        if (song.getAlbumName() != null) {
+            searchQuery += "(" + song.getAlbumName() + ")";
+        }
+        // prevent any search impacting triggers + pipeline starters
+        searchQuery = searchQuery.replaceAll("[\\\\/<>|:]", "");
+        // batch file lines starting with these are comments
+        return searchQuery.replaceAll("^[#;\\]\\s]+", "").strip();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * every downloaded file is printed with its video id and search query, as
+     * batch entries are not numbered
+     */
+    @Override
+    public ArrayList<String> createBatchCommand(File batchFile, File downloadFolder) {
+        if (batchFile == null || downloadFolder == null) {
+            logger.debug("null batchFile or downloadFolder provided in createBatchCommand");
+            return null;
+        }
+        ArrayList<String> command = this.createBaseCommand(downloadFolder);
+        // a break would stop the whole batch, not only the entry
+        command.add("--match-filter");
+        command.add("duration>45&duration<600"); // exclude shorts and videos +30 min
+        command.add("--no-simulate");
+        command.add("--print");
+        command.add("after_move:" + batchPrefix + "%(id)s\t%(playlist_id|)s\t%(filepath)s");
+        command.add("--output");
+        command.add("%(id)s.%(ext)s");
+        command.add("--batch-file");
+        command.add(batchFile.getAbsolutePath());
+        return command;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Entry<String, File> parseBatchResult(String line) {
+        if (line == null || !line.startsWith(batchPrefix)) {
+            return null;
+        }
+        String[] fields = line.substring(batchPrefix.length()).split("\t", 3);
+        if (fields.length != 3) {
+            logger.debug("invalid batch result: '" + line + "'");
+            return null;
+        }
+        // searches are a playlist with the query as id, urls have no playlist
+        String entry = fields[1].isEmpty() ? videoUrl + fields[0] : fields[1];
+        return new AbstractMap.SimpleEntry<>(entry, new File(fields[2]));
+    }
+
+    private ArrayList<String> createBaseCommand(File downloadFolder) {
         ArrayList<String> command = new ArrayList<>();
         // executables
         command.add(Settings.yt_dlFile.getAbsolutePath());
@@ -58,9 +167,6 @@ public class YT_dl implements DownloadInterface {
         command.add("ytsearch1");
         // exclude any found playlists or shorts
         command.add("--no-playlist"); // Prevent downloading playlists
-        // anything here will break if it is false
-        command.add("--break-match-filter");
-        command.add("duration>45&duration<600"); // exclude shorts and videos +30 min
         // metadata and formatting
         command.add("--extract-audio");
         // command.add("--embed-thumbnail");
@@ -74,7 +180,7 @@ public class YT_dl implements DownloadInterface {
         // command.add("--no-write-comments");
         // download location
         command.add("--paths");
-        command.add(downloadFile.getParent());
+        command.add(downloadFolder.getAbsolutePath());
         if (Settings.yt_dlCookieFile != null && Settings.yt_dlCookieFile.exists()) {
             command.add(1, "--cookies");
             command.add(2, Settings.yt_dlCookieFile.getAbsolutePath());
@@ -82,33 +188,6 @@ public class YT_dl implements DownloadInterface {
             command.add(1, "--cookies-from-browser");
             command.add(2, Settings.yt_dlCookieBrowser);
         }
-        command.add("--output");
-        command.add("\"" + downloadFile.getName() + "\""); // https://github.com/ytdl-org/youtube-dl/issues/23115
-        /**
-         * search for video using the query / use url
-         * ^ keep this at the end, incase of fucked up syntax making the other flags
-         * drop
-         */
-        String searchQuery = null;
-        if (song.getId("youtube") != null) {
-            searchQuery = "https://youtube.com/watch?v=" + song.getId("youtube");
-        } else if (youtube != null) {
-            String id = youtube.getSongId(song);
-            if (id != null) {
-                searchQuery = "https://youtube.com/watch?v=" + id;
-                song.addId("youtube", id);
-            }
-        }
-        if (searchQuery == null) {
-            // search query filters
-            searchQuery = song.toString() + " (official audio)"; // youtube search criteria
-            if (song.getAlbumName() != null) {
-                searchQuery += "(" + song.getAlbumName() + ")";
-            }
-            // prevent any search impacting triggers + pipeline starters
-            searchQuery = searchQuery.replaceAll("[\\\\/<>|:]", "");
-        }
-        command.add(searchQuery);
         return command;
     }
 
@@ -1,15 +1,19 @@
 package ryzen.ownitall.method.interfaces;
 
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
 
+import ryzen.ownitall.Settings;
 import ryzen.ownitall.classes.Album;
 import ryzen.ownitall.classes.LikedSongs;
 import ryzen.ownitall.classes.Playlist;
+import ryzen.ownitall.util.ExecutorRegistry;
 
 /**
  * <p>
  * Import interface.
  * </p>
+ * the async methods run the blocking ones on the shared "import" executor
  *
  * @author ryzen
  */
@@ -68,4 +72,56 @@ public interface Import {
      * @throws java.lang.InterruptedException if any.
      */
     public Album getAlbum(String albumId, String albumName, String albumArtistName) throws InterruptedException;
+
+    /**
+     * getLikedSongs without blocking the calling thread
+     *
+     * @return - future completing with the LikedSongs
+     */
+    default CompletableFuture<LikedSongs> getLikedSongsAsync() {
+        return ExecutorRegistry.supplyAsync("import", Settings.libraryThreads, this::getLikedSongs);
+    }
+
+    /**
+     * getPlaylists without blocking the calling thread
+     *
+     * @return - future completing with the playlists
+     */
+    default CompletableFuture<ArrayList<Playlist>> getPlaylistsAsync() {
+        return ExecutorRegistry.supplyAsync("import", Settings.libraryThreads, this::getPlaylists);
+    }
+
+    /**
+     * getPlaylist without blocking the calling thread
+     *
+     * @param playlistId   a {@link java.lang.String} object
+     * @param playlistName a {@link java.lang.String} object
+     * @return - future completing with the Playlist or null
+     */
+    default CompletableFuture<Playlist> getPlaylistAsync(String playlistId, String playlistName) {
+        return ExecutorRegistry.supplyAsync("import", Settings.libraryThreads,
+                () -> this.getPlaylist(playlistId, playlistName));
+    }
+
+    /**
+     * getAlbums without blocking the calling thread
+     *
+     * @return - future completing with the albums
+     */
+    default CompletableFuture<ArrayList<Album>> getAlbumsAsync() {
+        return ExecutorRegistry.supplyAsync("import", Settings.libraryThreads, this::getAlbums);
+    }
+
+    /**
+     * getAlbum without blocking the calling thread
+     *
+     * @param albumId         a {@link java.lang.String} object
+     * @param albumName       a {@link java.lang.String} object
+     * @param albumArtistName a {@link java.lang.String} object
+     * @return - future completing with the Album or null
+     */
+    default CompletableFuture<Album> getAlbumAsync(String albumId, String albumName, String albumArtistName) {
+        return ExecutorRegistry.supplyAsync("import", Settings.libraryThreads,
+                () -> this.getAlbum(albumId, albumName, albumArtistName));
+    }
 }
@@ -112,5 +112,7 @@ public class LibraryMenu {
         System.out.println(library.getArtistCacheSize() + " artists");
         System.out.println(library.getIdCacheSize() + " ids");
         System.out.println(library.getSongCacheSize() + " songs");
+        System.out.println("In memory: " + library.getCacheHits() + " hits, " + library.getCacheMisses()
+                + " misses, " + library.getCacheEvictions() + " evictions");
     }
 }
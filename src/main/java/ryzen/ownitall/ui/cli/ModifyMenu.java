@@ -140,7 +140,7 @@ public class ModifyMenu {
                 String choice = Menu.optionMenu(options.keySet(), "PLAYLIST SELECTION MENU");
                 Song song = interactiveCreateSong();
                 if (song != null) {
-                    options.get(choice).addSong(song);
+                    Collection.addPlaylistSong(options.get(choice), song);
                     logger.info("Succesfully added '" + song.getName() + "' to: '" + choice + "'");
                 }
             } catch (MenuClosed e) {
@@ -346,7 +346,7 @@ public class ModifyMenu {
             Playlist playlist = options.get(choice);
             options.remove(choice);
             String choice2 = Menu.optionMenu(options.keySet(), "PLAYLIST MERGE FROM");
-            playlist.merge(options.get(choice2));
+            Collection.mergePlaylist(playlist, options.get(choice2));
             Collection.removePlaylist(options.get(choice2));
             logger.info("Successfully merged playlist: '" + choice2 + "' into: '" + choice + "'");
         } catch (MenuClosed e) {
@@ -368,6 +368,7 @@ public class ModifyMenu {
                 Song foundSong = library.getSong(song);
                 if (foundSong != null) {
                     song.merge(foundSong);
+                    Collection.reindexSong(Collection.getLikedSongs(), song);
                 }
                 pb.step(song.getName());
             }
@@ -376,6 +377,7 @@ public class ModifyMenu {
                     Song foundSong = library.getSong(song);
                     if (foundSong != null) {
                         song.merge(foundSong);
+                        Collection.reindexSong(playlist, song);
                     }
                     pb.step(song.getName());
                 }
@@ -384,6 +386,7 @@ public class ModifyMenu {
                 Album foundAlbum = library.getAlbum(album);
                 if (foundAlbum != null) {
                     album.merge(foundAlbum);
+                    Collection.reindex(album);
                 }
                 pb.step(album.getName(), album.size());
             }
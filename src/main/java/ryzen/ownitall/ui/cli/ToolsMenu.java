@@ -1,15 +1,20 @@
 package ryzen.ownitall.ui.cli;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.LinkedHashMap;
 
 import ryzen.ownitall.Collection;
+import ryzen.ownitall.Settings;
 import ryzen.ownitall.Storage;
+import ryzen.ownitall.method.FolderWatcher;
 import ryzen.ownitall.method.Method;
 import ryzen.ownitall.util.Input;
 import ryzen.ownitall.util.Logger;
 import ryzen.ownitall.util.Menu;
+import ryzen.ownitall.util.exceptions.AuthenticationException;
 import ryzen.ownitall.util.exceptions.MenuClosed;
+import ryzen.ownitall.util.exceptions.MissingSettingException;
 
 /**
  * <p>
@@ -32,6 +37,8 @@ public class ToolsMenu {
         options.put("UnArchive", this::optionUnArchive);
         options.put("Library", this::optionLibrary);
         options.put("Clean Albums", this::optionCleanAlbums);
+        options.put("Convert Storage Format", this::optionConvertFormat);
+        options.put("Watch Local Library", this::optionWatch);
         options.put("Clear Saved Logins", this::optionClearCredentials);
         try {
             while (true) {
@@ -69,6 +76,25 @@ public class ToolsMenu {
         logger.info("Done cleaning albums");
     }
 
+    private void optionConvertFormat() {
+        logger.info("Converting files to '" + Settings.storageFormat + "'...");
+        Storage.convertFormat();
+        logger.info("Done converting files");
+    }
+
+    private void optionWatch() {
+        try (FolderWatcher watcher = new FolderWatcher()) {
+            logger.info("Press Ctrl+C to stop watching");
+            watcher.watch();
+        } catch (InterruptedException e) {
+            logger.debug("Interrupted while watching local library");
+        } catch (MissingSettingException | AuthenticationException e) {
+            logger.warn("Unable to watch local library: " + e.getMessage());
+        } catch (IOException e) {
+            logger.error("Exception watching local library", e);
+        }
+    }
+
     private void optionClearCredentials() {
         try {
             System.out.print("Are you sure you wan to clear Credentials (y/N): ");
@@ -140,10 +140,10 @@ public class CollectionMenu {
     @GetMapping("/collection/likedsongs/{song}")
     public String editLikedSongForm(Model model,
             @RequestParam(value = "callback", defaultValue = "/collection/browse") String callback,
-            @PathVariable(value = "song") int hashCode) {
-        Song song = Collection.getLikedSong(hashCode);
+            @PathVariable(value = "song") long contentId) {
+        Song song = Collection.getLikedSong(contentId);
         if (song == null) {
-            logger.warn(model, "Unable to find liked song '" + hashCode + "' in collection");
+            logger.warn(model, "Unable to find liked song '" + contentId + "' in collection");
             return "redirect:" + callback;
         }
         LinkedHashSet<FormVariable> fields = new LinkedHashSet<>();
@@ -156,19 +156,19 @@ public class CollectionMenu {
         mainArtist.setName("Main Artist Name");
         mainArtist.setValue(song.getMainArtist().getName());
         fields.add(mainArtist);
-        return Templates.form(model, "Edit Liked Song", fields, "/collection/likedsongs/" + song.hashCode(),
+        return Templates.form(model, "Edit Liked Song", fields, "/collection/likedsongs/" + song.getContentId(),
                 callback);
     }
 
     @PostMapping("/collection/likedsongs/{song}")
     @ResponseBody
     public ResponseEntity<String> editLikedSong(Model model,
-            @PathVariable(value = "song") int hashCode,
+            @PathVariable(value = "song") long contentId,
             @RequestBody LinkedHashMap<String, String> variables) {
-        Song song = Collection.getLikedSong(hashCode);
+        Song song = Collection.getLikedSong(contentId);
         if (song == null) {
-            logger.warn(model, "Unable to find song '" + hashCode + "' in collection");
-            return ResponseEntity.badRequest().body("Unable to find song '" + hashCode + "' in collection");
+            logger.warn(model, "Unable to find song '" + contentId + "' in collection");
+            return ResponseEntity.badRequest().body("Unable to find song '" + contentId + "' in collection");
         }
         String name = variables.get("songName");
         if (name == null) {
@@ -180,6 +180,7 @@ public class CollectionMenu {
         if (artistName != null) {
             song.addArtist(new Artist(artistName));
         }
+        Collection.reindexSong(Collection.getLikedSongs(), song);
         return ResponseEntity.ok("Successfully modified liked song '" + song.getName() + "'");
     }
 
@@ -193,10 +194,10 @@ public class CollectionMenu {
      */
     @DeleteMapping("/collection/likedsongs/{song}")
     @ResponseBody
-    public ResponseEntity<String> deleteLikedSong(@PathVariable(value = "song") int hashCode) {
-        Song song = Collection.getLikedSong(hashCode);
+    public ResponseEntity<String> deleteLikedSong(@PathVariable(value = "song") long contentId) {
+        Song song = Collection.getLikedSong(contentId);
         if (song == null) {
-            return ResponseEntity.badRequest().body("Unable to find song '" + hashCode + "' in collection likedsongs");
+            return ResponseEntity.badRequest().body("Unable to find song '" + contentId + "' in collection likedsongs");
         }
         Collection.removeLikedSong(song);
         logger.debug("Successfully removed likedsong '" + song.getName() + "'");
@@ -254,11 +255,11 @@ public class CollectionMenu {
 
     @GetMapping("/collection/playlist/{playlist}")
     public String editPlaylistForm(Model model,
-            @PathVariable(value = "playlist") int hashCode,
+            @PathVariable(value = "playlist") long contentId,
             @RequestParam(value = "callback", defaultValue = "/collection/browse") String callback) {
-        Playlist playlist = Collection.getPlaylist(hashCode);
+        Playlist playlist = Collection.getPlaylist(contentId);
         if (playlist == null) {
-            logger.info(model, "Unable to find playlist '" + hashCode + "' in collection");
+            logger.info(model, "Unable to find playlist '" + contentId + "' in collection");
             return "redirect:" + callback;
         }
         LinkedHashSet<FormVariable> fields = new LinkedHashSet<>();
@@ -278,11 +279,11 @@ public class CollectionMenu {
     @PostMapping("/collection/playlist/{playlist}")
     @ResponseBody
     public ResponseEntity<String> editPlaylist(Model model,
-            @PathVariable(value = "playlist") int hashCode,
+            @PathVariable(value = "playlist") long contentId,
             @RequestBody LinkedHashMap<String, String> variables) {
-        Playlist playlist = Collection.getPlaylist(hashCode);
+        Playlist playlist = Collection.getPlaylist(contentId);
         if (playlist == null) {
-            return ResponseEntity.badRequest().body("Unable to find playlist '" + hashCode + "' in collection");
+            return ResponseEntity.badRequest().body("Unable to find playlist '" + contentId + "' in collection");
         }
         String name = variables.get("playlistName");
         if (name != null) {
@@ -292,6 +293,7 @@ public class CollectionMenu {
         if (coverImage != null) {
             playlist.setCoverImage(coverImage);
         }
+        Collection.reindex(playlist);
         logger.info(model, "Successfully modified playlist '" + playlist.getName() + "'");
         return ResponseEntity.ok("Successfully modified playlist '" + playlist.getName() + "'");
     }
@@ -307,11 +309,11 @@ public class CollectionMenu {
      */
     @GetMapping("/collection/playlist/{playlist}/song")
     public String addPlaylistSongForm(Model model,
-            @PathVariable(value = "playlist") int hashCode,
+            @PathVariable(value = "playlist") long contentId,
             @RequestParam(value = "callback", defaultValue = "/collection/browse") String callback) {
-        Playlist playlist = Collection.getPlaylist(hashCode);
+        Playlist playlist = Collection.getPlaylist(contentId);
         if (playlist == null) {
-            logger.warn(model, "Unable to find playlist '" + hashCode + "' in collection");
+            logger.warn(model, "Unable to find playlist '" + contentId + "' in collection");
             return "redirect:" + callback;
         }
         LinkedHashSet<FormVariable> fields = new LinkedHashSet<>();
@@ -323,7 +325,7 @@ public class CollectionMenu {
         mainArtist.setName("Main Artist Name");
         fields.add(mainArtist);
         return Templates.form(model, "Add playlist '" + playlist.getName() + "' song", fields,
-                "/collection/playlist/" + playlist.hashCode() + "/song",
+                "/collection/playlist/" + playlist.getContentId() + "/song",
                 callback);
     }
 
@@ -339,12 +341,12 @@ public class CollectionMenu {
     @PostMapping("/collection/playlist/{playlist}/song")
     @ResponseBody
     public ResponseEntity<String> addPlaylistSong(Model model,
-            @PathVariable(value = "playlist") int hashCode,
+            @PathVariable(value = "playlist") long contentId,
             @RequestBody LinkedHashMap<String, String> variables) {
-        Playlist playlist = Collection.getPlaylist(hashCode);
+        Playlist playlist = Collection.getPlaylist(contentId);
         if (playlist == null) {
-            logger.warn(model, "Unable to find playlist '" + hashCode + "' in collection");
-            return ResponseEntity.badRequest().body("Unable to find playlist '" + hashCode + "' in collection");
+            logger.warn(model, "Unable to find playlist '" + contentId + "' in collection");
+            return ResponseEntity.badRequest().body("Unable to find playlist '" + contentId + "' in collection");
         }
         String songName = variables.get("songName");
         if (songName == null) {
@@ -368,7 +370,7 @@ public class CollectionMenu {
                     return ResponseEntity.badRequest().body(
                             "Song was not found in library and `LibraryVerified` is set to true, not adding song");
                 }
-                playlist.addSong(song);
+                Collection.addPlaylistSong(playlist, song);
                 return ResponseEntity.ok(
                         "Successfully added song '" + song.getName() + "' to playlist '" + playlist.getName() + "'");
             } catch (InterruptedException e) {
@@ -383,17 +385,17 @@ public class CollectionMenu {
 
     @GetMapping("/collection/playlist/{playlist}/{song}")
     public String editPlaylistSongForm(Model model,
-            @PathVariable(value = "playlist") int playlistHash,
-            @PathVariable(value = "song") int songHash,
+            @PathVariable(value = "playlist") long playlistId,
+            @PathVariable(value = "song") long songId,
             @RequestParam(value = "callback", defaultValue = "/collection/browse") String callback) {
-        Playlist playlist = Collection.getPlaylist(playlistHash);
+        Playlist playlist = Collection.getPlaylist(playlistId);
         if (playlist == null) {
-            logger.warn(model, "Unable to find playlist '" + playlistHash + "' in collection");
+            logger.warn(model, "Unable to find playlist '" + playlistId + "' in collection");
             return "redirect:" + callback;
         }
-        Song song = playlist.getSong(songHash);
+        Song song = playlist.getSong(songId);
         if (song == null) {
-            logger.warn(model, "Unable to find song '" + songHash + "' in playlist '" + playlist.getName() + "'");
+            logger.warn(model, "Unable to find song '" + songId + "' in playlist '" + playlist.getName() + "'");
             return "redirect:" + callback;
         }
         LinkedHashSet<FormVariable> fields = new LinkedHashSet<>();
@@ -408,26 +410,26 @@ public class CollectionMenu {
         fields.add(mainArtist);
         return Templates.form(model, "Edit Playlist '" + playlist.getName() + "'' Song '" + song.getName() + "'",
                 fields,
-                "/collection/playlist/" + playlist.hashCode() + "/" + song.hashCode(),
+                "/collection/playlist/" + playlist.getContentId() + "/" + song.getContentId(),
                 callback);
     }
 
     @PostMapping("/collection/playlist/{playlist}/{song}")
     @ResponseBody
     public ResponseEntity<String> editPlaylistSong(Model model,
-            @PathVariable(value = "playlist") int playlistHash,
-            @PathVariable(value = "song") int songHash,
+            @PathVariable(value = "playlist") long playlistId,
+            @PathVariable(value = "song") long songId,
             @RequestBody LinkedHashMap<String, String> variables) {
-        Playlist playlist = Collection.getPlaylist(playlistHash);
+        Playlist playlist = Collection.getPlaylist(playlistId);
         if (playlist == null) {
-            logger.warn(model, "Unable to find playlist '" + playlistHash + "' in collection");
-            return ResponseEntity.badRequest().body("Unable to find playlist '" + playlistHash + "' in collection");
+            logger.warn(model, "Unable to find playlist '" + playlistId + "' in collection");
+            return ResponseEntity.badRequest().body("Unable to find playlist '" + playlistId + "' in collection");
         }
-        Song song = playlist.getSong(songHash);
+        Song song = playlist.getSong(songId);
         if (song == null) {
-            logger.warn(model, "Unable to find song '" + songHash + "' in playlist '" + playlist.getName() + "'");
+            logger.warn(model, "Unable to find song '" + songId + "' in playlist '" + playlist.getName() + "'");
             return ResponseEntity.badRequest().body(
-                    "Unable to find song '" + songHash + "' in playlist '" + playlist.getName() + "'");
+                    "Unable to find song '" + songId + "' in playlist '" + playlist.getName() + "'");
         }
         String name = variables.get("songName");
         if (name == null) {
@@ -439,6 +441,7 @@ public class CollectionMenu {
         if (artistName != null) {
             song.addArtist(new Artist(artistName));
         }
+        Collection.reindexSong(playlist, song);
         return ResponseEntity.ok("Successfully modified song'" + song.getName() + "' in '" + playlist.getName() + "'");
     }
 
@@ -452,10 +455,10 @@ public class CollectionMenu {
      */
     @DeleteMapping("/collection/playlist/{playlist}")
     @ResponseBody
-    public ResponseEntity<String> deletePlaylist(@PathVariable(value = "playlist") int hashCode) {
-        Playlist playlist = Collection.getPlaylist(hashCode);
+    public ResponseEntity<String> deletePlaylist(@PathVariable(value = "playlist") long contentId) {
+        Playlist playlist = Collection.getPlaylist(contentId);
         if (playlist == null) {
-            return ResponseEntity.badRequest().body("Unable to find playlist '" + hashCode + "' in collection");
+            return ResponseEntity.badRequest().body("Unable to find playlist '" + contentId + "' in collection");
         }
         Collection.removePlaylist(playlist);
         logger.debug("Successfully deleted playlist '" + playlist.getName() + "'");
@@ -473,19 +476,19 @@ public class CollectionMenu {
      */
     @DeleteMapping("/collection/playlist/{playlist}/{song}")
     @ResponseBody
-    public ResponseEntity<String> deletePlaylistSong(@PathVariable(value = "playlist") int hashCode,
-            @PathVariable(value = "song") int songHash) {
-        Playlist playlist = Collection.getPlaylist(hashCode);
+    public ResponseEntity<String> deletePlaylistSong(@PathVariable(value = "playlist") long contentId,
+            @PathVariable(value = "song") long songId) {
+        Playlist playlist = Collection.getPlaylist(contentId);
         if (playlist == null) {
-            return ResponseEntity.badRequest().body("Unable to find playlist '" + hashCode + "' in collection");
+            return ResponseEntity.badRequest().body("Unable to find playlist '" + contentId + "' in collection");
         }
-        Song song = playlist.getSong(songHash);
+        Song song = playlist.getSong(songId);
         if (song == null) {
-            logger.warn("Unable to find song '" + songHash + "' in playlist '" + playlist.getName() + "'");
+            logger.warn("Unable to find song '" + songId + "' in playlist '" + playlist.getName() + "'");
             return ResponseEntity.badRequest()
-                    .body("Unable to find song '" + songHash + "' in  playlist '" + playlist.getName() + "'");
+                    .body("Unable to find song '" + songId + "' in  playlist '" + playlist.getName() + "'");
         }
-        playlist.removeSong(song);
+        Collection.removePlaylistSong(playlist, song);
         logger.info("Successfully deleted song '" + song.getName() + "' from playlist '" + playlist.getName()
                 + "'");
         return ResponseEntity.ok("Successfully deleted song '" + song.getName() + "' from playlist '"
@@ -570,10 +573,10 @@ public class CollectionMenu {
      */
     @DeleteMapping("/collection/album/{album}")
     @ResponseBody
-    public ResponseEntity<String> deleteAlbum(@PathVariable(value = "album") int hashCode) {
-        Album album = Collection.getAlbum(hashCode);
+    public ResponseEntity<String> deleteAlbum(@PathVariable(value = "album") long contentId) {
+        Album album = Collection.getAlbum(contentId);
         if (album == null) {
-            return ResponseEntity.badRequest().body("Unable to find album '" + hashCode + "' in collection");
+            return ResponseEntity.badRequest().body("Unable to find album '" + contentId + "' in collection");
         }
         Collection.removeAlbum(album);
         logger.debug("Successfully deleted album '" + album.getName() + "'");
@@ -148,7 +148,8 @@ public class LibraryMenu {
         Library library = Library.load();
         int size = library.getAlbumCacheSize() + library.getArtistCacheSize() + library.getIdCacheSize()
                 + library.getSongCacheSize();
-        logger.info(model, "There currently are '" + size + "' cache entries");
+        logger.info(model, "There currently are '" + size + "' cache entries (in memory: " + library.getCacheHits()
+                + " hits, " + library.getCacheMisses() + " misses, " + library.getCacheEvictions() + " evictions)");
         return libraryMenu(model);
     }
 
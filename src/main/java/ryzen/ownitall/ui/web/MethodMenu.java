@@ -460,7 +460,7 @@ public class MethodMenu {
             options.put(album.toString(), "/method/process?processName=Exporting '" + album.getName() + "' from "
                     + method
                             .getMethodName()
-                    + "&processFunction=/method/export/album/" + album.hashCode()
+                    + "&processFunction=/method/export/album/" + album.getContentId()
                     + "&callback=" + callback);
         }
         return Templates.menu(model, "Album Export Menu", options, callback);
@@ -489,12 +489,12 @@ public class MethodMenu {
      */
     @PostMapping("/method/export/album/{album}")
     public ResponseEntity<Void> exportAlbum(
-            @PathVariable(value = "album") int hashCode) {
-        Album album = Collection.getAlbum(hashCode);
+            @PathVariable(value = "album") long contentId) {
+        Album album = Collection.getAlbum(contentId);
         if (album != null) {
             method.exportAlbum(album);
         } else {
-            logger.warn("Unable to find album '" + hashCode + "' in collection");
+            logger.warn("Unable to find album '" + contentId + "' in collection");
             return ResponseEntity.badRequest().build();
         }
         return ResponseEntity.ok().build();
@@ -518,7 +518,7 @@ public class MethodMenu {
             options.put(playlist.toString(), "/method/process?processName=Exporting '" + playlist.getName() + "' from "
                     + method
                             .getMethodName()
-                    + "&processFunction=/method/export/playlist/" + playlist.hashCode()
+                    + "&processFunction=/method/export/playlist/" + playlist.getContentId()
                     + "&callback=" + callback);
         }
         return Templates.menu(model, "Playlist Export Menu", options, callback);
@@ -547,12 +547,12 @@ public class MethodMenu {
      */
     @PostMapping("/method/export/playlist/{playlist}")
     public ResponseEntity<Void> exportPlaylist(
-            @PathVariable(value = "playlist") int hashCode) {
-        Playlist playlist = Collection.getPlaylist(hashCode);
+            @PathVariable(value = "playlist") long contentId) {
+        Playlist playlist = Collection.getPlaylist(contentId);
         if (playlist != null) {
             method.exportPlaylist(playlist);
         } else {
-            logger.warn("Unable to find playlist '" + hashCode + "' in collection");
+            logger.warn("Unable to find playlist '" + contentId + "' in collection");
             return ResponseEntity.badRequest().build();
         }
         return ResponseEntity.ok().build();
@@ -668,7 +668,7 @@ public class MethodMenu {
         LinkedHashMap<String, String> options = new LinkedHashMap<>();
         options.put("All", "/method/sync/playlists");
         for (Playlist playlist : Collection.getPlaylists()) {
-            options.put(playlist.getName(), "/method/sync/playlist/" + playlist.hashCode());
+            options.put(playlist.getName(), "/method/sync/playlist/" + playlist.getContentId());
         }
         return Templates.menu(model, "Sync Playlist(s)", options, callback);
     }
@@ -690,15 +690,15 @@ public class MethodMenu {
 
     @GetMapping("/method/sync/playlists/{playlist}")
     public String optionSyncPlaylist(Model model,
-            @PathVariable(value = "playlist") int hashCode,
+            @PathVariable(value = "playlist") long contentId,
             @RequestParam(value = "callback", defaultValue = "/method/sync") String callback) {
-        Playlist playlist = Collection.getPlaylist(hashCode);
+        Playlist playlist = Collection.getPlaylist(contentId);
         if (playlist != null) {
             return Templates.process(model,
                     "Exporting '" + method.getMethodName() + "' playlist '" + playlist.getName() + "'",
-                    "/method/sync/playlist/" + playlist.hashCode(), "/method/progress", "/method/logs", callback);
+                    "/method/sync/playlist/" + playlist.getContentId(), "/method/progress", "/method/logs", callback);
         } else {
-            logger.warn(model, "Unable to find playlist '" + hashCode + "' in collection");
+            logger.warn(model, "Unable to find playlist '" + contentId + "' in collection");
             return "redirect:" + callback;
         }
     }
@@ -717,12 +717,12 @@ public class MethodMenu {
     }
 
     @PostMapping("/method/sync/playlist/{playlist}")
-    public ResponseEntity<Void> syncPlaylist(@PathVariable(value = "playlist") int hashCode) {
-        Playlist playlist = Collection.getPlaylist(hashCode);
+    public ResponseEntity<Void> syncPlaylist(@PathVariable(value = "playlist") long contentId) {
+        Playlist playlist = Collection.getPlaylist(contentId);
         if (playlist != null) {
             method.syncPlaylist(playlist);
         } else {
-            logger.warn("Unable to find playlist '" + hashCode + "' in collection");
+            logger.warn("Unable to find playlist '" + contentId + "' in collection");
             return ResponseEntity.badRequest().build();
         }
         return ResponseEntity.ok().build();
@@ -13,6 +13,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 
 import ryzen.ownitall.Collection;
+import ryzen.ownitall.Settings;
 import ryzen.ownitall.Storage;
 import ryzen.ownitall.method.Method;
 
@@ -42,6 +43,7 @@ public class ToolsMenu {
         options.put("Unarchive", "/tools/unarchive");
         options.put("Library", "/library");
         options.put("Clean Albums", "/tools/cleanalbums");
+        options.put("Convert Storage Format", "/tools/convertformat");
         options.put("Reset Credentials", "/tools/clearcredentials");
         return Templates.menu(model, "Tools Menu", options, "/tools/return");
     }
@@ -117,6 +119,21 @@ public class ToolsMenu {
         return toolsMenu(model);
     }
 
+    /**
+     * <p>
+     * optionConvertFormat.
+     * </p>
+     *
+     * @param model a {@link org.springframework.ui.Model} object
+     * @return a {@link java.lang.String} object
+     */
+    @GetMapping("/tools/convertformat")
+    public String optionConvertFormat(Model model) {
+        Storage.convertFormat();
+        logger.info(model, "Successfully converted files to '" + Settings.storageFormat + "'");
+        return toolsMenu(model);
+    }
+
     /**
      * <p>
      * optionClearCredentials.
@@ -0,0 +1,175 @@
+package ryzen.ownitall.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.ConcurrentHashMap;
+
+import ryzen.ownitall.Settings;
+import ryzen.ownitall.Storage;
+
+/**
+ * <p>
+ * ArtworkCache class.
+ * </p>
+ * cover images stored on disk by the hash of their content, so an image is
+ * only fetched once and stored once even when multiple uris point to it
+ * recently used images are kept in memory for tagging
+ *
+ * @author ryzen
+ */
+public class ArtworkCache {
+    private static final Logger logger = new Logger(ArtworkCache.class);
+    private static final BoundedCache<byte[]> images = new BoundedCache<>(Settings.artworkCacheSize, true);
+    // one lock per uri, so concurrent taggers wait on a single fetch
+    private static final ConcurrentHashMap<String, Object> locks = new ConcurrentHashMap<>();
+    private static MappedCache<String> hashes;
+
+    private static synchronized MappedCache<String> getHashes() {
+        if (hashes == null) {
+            hashes = Storage.openArtworkIndex();
+        }
+        return hashes;
+    }
+
+    private static File getFolder() {
+        return new File(Settings.cacheFolder, "artwork");
+    }
+
+    /**
+     * get a cover image, fetched only if not cached yet
+     *
+     * @param uri - uri of the image, local files are read directly
+     * @return - image data or null if not found
+     * @throws IOException - when unable to fetch or read the image
+     */
+    public static byte[] get(URI uri) throws IOException {
+        if (uri == null) {
+            logger.debug("null uri provided in get");
+            return null;
+        }
+        if ("file".equalsIgnoreCase(uri.getScheme())) {
+            Path path = Path.of(uri);
+            if (!Files.exists(path)) {
+                logger.debug("coverimage file '" + path + "' does not exist");
+                return null;
+            }
+            return Files.readAllBytes(path);
+        }
+        String key = uri.toString();
+        synchronized (locks.computeIfAbsent(key, k -> new Object())) {
+            MappedCache<String> index = getHashes();
+            if (index != null) {
+                String hash = index.get(key);
+                if (hash != null) {
+                    byte[] image = read(hash);
+                    if (image != null) {
+                        return image;
+                    }
+                }
+            }
+            byte[] image = WebTools.getImage(uri);
+            if (image == null) {
+                return null;
+            }
+            String hash = store(image);
+            if (index != null && hash != null) {
+                index.put(key, hash);
+            }
+            return image;
+        }
+    }
+
+    /**
+     * write a cover image to a file, does nothing if the file exists
+     *
+     * @param uri  - uri of the image
+     * @param file - file to write the image to
+     * @throws IOException - when unable to fetch or write the image
+     */
+    public static void copy(URI uri, File file) throws IOException {
+        if (uri == null || file == null) {
+            logger.debug("null uri or file provided in copy");
+            return;
+        }
+        if (file.exists()) {
+            logger.debug("coverimage already found: '" + file.getAbsolutePath() + "'");
+            return;
+        }
+        byte[] image = get(uri);
+        if (image != null) {
+            Files.write(file.toPath(), image);
+        }
+    }
+
+    private static byte[] read(String hash) throws IOException {
+        byte[] image = images.get(hash);
+        if (image != null) {
+            return image;
+        }
+        File file = new File(getFolder(), hash);
+        if (!file.exists()) {
+            logger.debug("cached coverimage '" + file.getAbsolutePath() + "' is missing");
+            return null;
+        }
+        image = Files.readAllBytes(file.toPath());
+        images.put(hash, image);
+        return image;
+    }
+
+    private static String store(byte[] image) throws IOException {
+        String hash;
+        try {
+            hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(image));
+        } catch (NoSuchAlgorithmException e) {
+            logger.error("Exception hashing coverimage", e);
+            return null;
+        }
+        images.put(hash, image);
+        File file = new File(getFolder(), hash);
+        if (file.exists()) {
+            // same image behind another uri
+            return hash;
+        }
+        file.getParentFile().mkdirs();
+        // written next to it and moved, so a cached image is never partial
+        Path tempFile = Files.createTempFile(getFolder().toPath(), hash, ".tmp");
+        Files.write(tempFile, image);
+        Files.move(tempFile, file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        return hash;
+    }
+
+    /**
+     * write all new uris to disk
+     */
+    public static synchronized void flush() {
+        if (hashes != null) {
+            hashes.flush();
+        }
+    }
+
+    /**
+     * write all new uris to disk, close the index file and forget cached
+     * images
+     * it is opened again on the next use
+     */
+    public static synchronized void close() {
+        images.clear();
+        if (hashes == null) {
+            return;
+        }
+        try {
+            hashes.close();
+        } catch (IOException e) {
+            logger.error("exception closing artwork index", e);
+        }
+        hashes = null;
+    }
+}
@@ -0,0 +1,169 @@
+package ryzen.ownitall.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+/**
+ * <p>
+ * BinaryInput class.
+ * </p>
+ * reads a binary snapshot written by BinaryOutput, record by record
+ *
+ * @author ryzen
+ */
+public class BinaryInput implements Closeable {
+    private final DataInputStream input;
+    private DataInputStream record;
+    private final ArrayList<String> internedStrings;
+
+    /**
+     * default BinaryInput constructor
+     * reads and verifies the header (magic and version)
+     *
+     * @param inputStream - stream to read snapshot from
+     * @param magic       - expected 4 character file type identifier
+     * @throws IOException - exception reading or invalid header
+     */
+    public BinaryInput(InputStream inputStream, String magic) throws IOException {
+        this.input = new DataInputStream(inputStream);
+        this.internedStrings = new ArrayList<>();
+        byte[] header = new byte[4];
+        this.input.readFully(header);
+        if (!new String(header, StandardCharsets.US_ASCII).equals(magic)) {
+            throw new IOException("invalid snapshot header, expected '" + magic + "'");
+        }
+        long version = readVarLong(this.input);
+        if (version != BinaryOutput.VERSION) {
+            throw new IOException("unsupported snapshot version '" + version + "'");
+        }
+    }
+
+    /**
+     * load the next record
+     *
+     * @return - true if a record was loaded, false at the end of the snapshot
+     * @throws IOException - exception reading or incomplete record
+     */
+    public boolean nextRecord() throws IOException {
+        int first = this.input.read();
+        if (first == -1) {
+            return false;
+        }
+        long length = first & 0x7f;
+        if ((first & 0x80) != 0) {
+            length |= readVarLong(this.input) << 7;
+        }
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("invalid record length '" + length + "'");
+        }
+        byte[] bytes = new byte[(int) length];
+        this.input.readFully(bytes);
+        this.record = new DataInputStream(new ByteArrayInputStream(bytes));
+        return true;
+    }
+
+    /**
+     * read an unsigned variable length number
+     *
+     * @return - read number
+     * @throws IOException - exception reading
+     */
+    public long readVarLong() throws IOException {
+        return readVarLong(this.getRecord());
+    }
+
+    /**
+     * read a variable length number which has to fit an int (counts, ...)
+     *
+     * @return - read number
+     * @throws IOException - exception reading or number too large
+     */
+    public int readVarInt() throws IOException {
+        long value = this.readVarLong();
+        if (value > Integer.MAX_VALUE) {
+            throw new IOException("invalid count '" + value + "'");
+        }
+        return (int) value;
+    }
+
+    /**
+     * read a fixed 8 byte number
+     *
+     * @return - read number
+     * @throws IOException - exception reading
+     */
+    public long readLong() throws IOException {
+        return this.getRecord().readLong();
+    }
+
+    /**
+     * read a string written using writeString
+     *
+     * @return - read string or null
+     * @throws IOException - exception reading
+     */
+    public String readString() throws IOException {
+        int length = this.readVarInt();
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        this.getRecord().readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * read a string written using writeInterned
+     *
+     * @return - read string or null
+     * @throws IOException - exception reading or unknown string index
+     */
+    public String readInterned() throws IOException {
+        int index = this.readVarInt();
+        if (index == 0) {
+            return null;
+        }
+        if (index == 1) {
+            String value = this.readString();
+            this.internedStrings.add(value);
+            return value;
+        }
+        if (index - 2 >= this.internedStrings.size()) {
+            throw new IOException("unknown interned string '" + index + "'");
+        }
+        return this.internedStrings.get(index - 2);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        this.input.close();
+    }
+
+    private DataInputStream getRecord() throws IOException {
+        if (this.record == null) {
+            throw new EOFException("no record loaded");
+        }
+        return this.record;
+    }
+
+    private static long readVarLong(DataInputStream stream) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = stream.readUnsignedByte();
+            value |= (long) (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("invalid varint");
+    }
+}
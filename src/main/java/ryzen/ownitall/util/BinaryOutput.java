@@ -0,0 +1,133 @@
+package ryzen.ownitall.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+
+/**
+ * <p>
+ * BinaryOutput class.
+ * </p>
+ * writes a binary snapshot made of length prefixed records
+ * numbers are written as varints and repeating strings (artist names, ...) are
+ * interned: written once and referenced by index afterwards
+ * read back using BinaryInput
+ *
+ * @author ryzen
+ */
+public class BinaryOutput implements Closeable {
+    /** Constant <code>VERSION=1</code> */
+    public static final int VERSION = 1;
+    private final DataOutputStream output;
+    private final ByteArrayOutputStream recordBuffer;
+    private final DataOutputStream record;
+    private final HashMap<String, Integer> internedStrings;
+
+    /**
+     * default BinaryOutput constructor
+     * writes the header (magic and version)
+     *
+     * @param outputStream - stream to write snapshot to
+     * @param magic        - 4 character file type identifier
+     * @throws IOException - exception writing header
+     */
+    public BinaryOutput(OutputStream outputStream, String magic) throws IOException {
+        this.output = new DataOutputStream(outputStream);
+        this.recordBuffer = new ByteArrayOutputStream();
+        this.record = new DataOutputStream(this.recordBuffer);
+        this.internedStrings = new HashMap<>();
+        this.output.write(magic.getBytes(StandardCharsets.US_ASCII), 0, 4);
+        writeVarLong(this.output, VERSION);
+    }
+
+    /**
+     * write the current record (length prefixed) and start a new one
+     *
+     * @throws IOException - exception writing record
+     */
+    public void endRecord() throws IOException {
+        this.record.flush();
+        writeVarLong(this.output, this.recordBuffer.size());
+        this.recordBuffer.writeTo(this.output);
+        this.recordBuffer.reset();
+    }
+
+    /**
+     * write an unsigned variable length number
+     * 7 bits per byte, small numbers (durations, counts) take 1-2 bytes
+     *
+     * @param value - number to write
+     * @throws IOException - exception writing
+     */
+    public void writeVarLong(long value) throws IOException {
+        writeVarLong(this.record, value);
+    }
+
+    /**
+     * write a fixed 8 byte number (hashes, ...)
+     *
+     * @param value - number to write
+     * @throws IOException - exception writing
+     */
+    public void writeLong(long value) throws IOException {
+        this.record.writeLong(value);
+    }
+
+    /**
+     * write a string, null allowed
+     *
+     * @param value - string to write
+     * @throws IOException - exception writing
+     */
+    public void writeString(String value) throws IOException {
+        if (value == null) {
+            writeVarLong(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length + 1);
+        this.record.write(bytes);
+    }
+
+    /**
+     * write a string which is expected to repeat, null allowed
+     * the first occurence is written in full, later ones as index
+     *
+     * @param value - string to write
+     * @throws IOException - exception writing
+     */
+    public void writeInterned(String value) throws IOException {
+        if (value == null) {
+            writeVarLong(0);
+            return;
+        }
+        Integer index = this.internedStrings.get(value);
+        if (index != null) {
+            writeVarLong(index + 2);
+            return;
+        }
+        this.internedStrings.put(value, this.internedStrings.size());
+        writeVarLong(1);
+        writeString(value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        this.output.close();
+    }
+
+    private static void writeVarLong(DataOutputStream stream, long value) throws IOException {
+        while ((value & ~0x7fL) != 0) {
+            stream.writeByte((int) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        stream.writeByte((int) value);
+    }
+}
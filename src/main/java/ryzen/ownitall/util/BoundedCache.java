@@ -0,0 +1,124 @@
+package ryzen.ownitall.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ * BoundedCache class.
+ * </p>
+ * in memory cache with a maximum amount of entries
+ * evicts the least recently used (LRU) or the oldest (FIFO) entry when full
+ * keeps hit, miss and eviction counters
+ *
+ * @author ryzen
+ */
+public class BoundedCache<V> {
+    private final int maxSize;
+    private final LinkedHashMap<String, V> entries;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * default BoundedCache constructor
+     *
+     * @param maxSize - maximum amount of entries, 0 to disable caching
+     * @param lru     - true to evict least recently used, false to evict oldest
+     */
+    public BoundedCache(int maxSize, boolean lru) {
+        this.maxSize = Math.max(maxSize, 0);
+        // access order moves entries to the end on get, which makes the eldest the
+        // least recently used
+        this.entries = new LinkedHashMap<>(16, 0.75f, lru) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                if (this.size() > BoundedCache.this.maxSize) {
+                    BoundedCache.this.evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * get cached value
+     *
+     * @param key - key to get value of
+     * @return - value or null if not cached
+     */
+    public synchronized V get(String key) {
+        V value = this.entries.get(key);
+        if (value == null) {
+            this.misses++;
+        } else {
+            this.hits++;
+        }
+        return value;
+    }
+
+    /**
+     * cache value, evicting an entry if full
+     *
+     * @param key   - key to cache value under
+     * @param value - value to cache
+     */
+    public synchronized void put(String key, V value) {
+        if (this.maxSize == 0) {
+            return;
+        }
+        this.entries.put(key, value);
+    }
+
+    /**
+     * remove all cached values, counters are kept
+     */
+    public synchronized void clear() {
+        this.entries.clear();
+    }
+
+    /**
+     * <p>
+     * size.
+     * </p>
+     *
+     * @return a int
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * <p>
+     * Getter for the field <code>hits</code>.
+     * </p>
+     *
+     * @return a long
+     */
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * <p>
+     * Getter for the field <code>misses</code>.
+     * </p>
+     *
+     * @return a long
+     */
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * <p>
+     * Getter for the field <code>evictions</code>.
+     * </p>
+     *
+     * @return a long
+     */
+    public synchronized long getEvictions() {
+        return this.evictions;
+    }
+}
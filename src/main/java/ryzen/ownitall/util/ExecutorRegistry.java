@@ -0,0 +1,93 @@
+package ryzen.ownitall.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import ryzen.ownitall.Settings;
+
+/**
+ * <p>
+ * ExecutorRegistry class.
+ * </p>
+ * central place where all executors are created
+ * with virtual threads every task gets its own (cheap) thread, so blocking on
+ * io does not need pool tuning, otherwise a pool of platform threads is used
+ *
+ * @author ryzen
+ */
+public class ExecutorRegistry {
+    private static final Logger logger = new Logger(ExecutorRegistry.class);
+    private static final ConcurrentHashMap<String, ExecutorService> executors = new ConcurrentHashMap<>();
+
+    /**
+     * blocking task which can be interrupted
+     */
+    @FunctionalInterface
+    public interface Task<T> {
+        T get() throws InterruptedException;
+    }
+
+    /**
+     * get the shared executor of a stage, created on first use and reused after
+     * shared executors are never shut down by their users
+     *
+     * @param name    - name of the stage, ex: "library"
+     * @param threads - amount of platform threads, ignored with virtual threads
+     * @return - shared ExecutorService
+     */
+    public static ExecutorService get(String name, int threads) {
+        return executors.compute(name, (key, executor) -> {
+            if (executor == null || executor.isShutdown()) {
+                return create(key, threads);
+            }
+            return executor;
+        });
+    }
+
+    /**
+     * create an executor owned by the caller, which has to shut it down
+     *
+     * @param name    - name of the stage, used to name the threads
+     * @param threads - amount of platform threads, ignored with virtual threads
+     * @return - new ExecutorService
+     */
+    public static ExecutorService create(String name, int threads) {
+        if (Settings.virtualThreads) {
+            logger.debug("Created virtual thread executor '" + name + "'");
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+        }
+        AtomicInteger count = new AtomicInteger();
+        logger.debug("Created " + Math.max(threads, 1) + " thread executor '" + name + "'");
+        return Executors.newFixedThreadPool(Math.max(threads, 1), runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.getAndIncrement());
+            // pending tasks should not keep the application running
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * run a blocking task on the shared executor of a stage
+     * the task still blocks a thread while waiting, with virtual threads that
+     * thread is cheap
+     *
+     * @param name    - name of the stage, ex: "library"
+     * @param threads - amount of platform threads, ignored with virtual threads
+     * @param task    - blocking task to run
+     * @return - future completing with the task result
+     */
+    public static <T> CompletableFuture<T> supplyAsync(String name, int threads, Task<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+        }, get(name, threads));
+    }
+}
@@ -0,0 +1,237 @@
+package ryzen.ownitall.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * HashIndex class.
+ * </p>
+ * maps normalized keys to buckets of values, so a lookup only has to run the
+ * (fuzzy) matcher on the values sharing a key instead of on every value
+ *
+ * @author ryzen
+ */
+public class HashIndex<T> {
+    private static final Logger logger = new Logger(HashIndex.class);
+    private final Function<T, LinkedHashSet<String>> keyMapper;
+    private final BiPredicate<T, T> matcher;
+    private final HashMap<String, ArrayList<T>> buckets;
+    // keys are remembered per value as the value can change after being indexed
+    private final IdentityHashMap<T, LinkedHashSet<String>> indexedKeys;
+
+    /**
+     * default HashIndex constructor
+     * values are matched using equals
+     *
+     * @param keyMapper - function returning all keys a value is indexed under
+     */
+    public HashIndex(Function<T, LinkedHashSet<String>> keyMapper) {
+        this(keyMapper, Object::equals);
+    }
+
+    /**
+     * HashIndex constructor with custom matcher
+     *
+     * @param keyMapper - function returning all keys a value is indexed under
+     * @param matcher   - (indexed value, searched value) predicate used in find
+     */
+    public HashIndex(Function<T, LinkedHashSet<String>> keyMapper, BiPredicate<T, T> matcher) {
+        this.keyMapper = keyMapper;
+        this.matcher = matcher;
+        this.buckets = new HashMap<>();
+        this.indexedKeys = new IdentityHashMap<>();
+    }
+
+    /**
+     * build a case sensitive key (external id's, ...)
+     *
+     * @param type  - type of key, ex: "spotify"
+     * @param value - value of the key
+     * @return - String key or null if no value
+     */
+    public static String exactKey(String type, String value) {
+        if (type == null || value == null || value.isEmpty()) {
+            return null;
+        }
+        return "=" + type + ":" + value;
+    }
+
+    /**
+     * build a normalized (trimmed and lower cased) key (names, ...)
+     *
+     * @param type  - type of key, ex: "name"
+     * @param value - value of the key
+     * @return - String key or null if no value
+     */
+    public static String fuzzyKey(String type, String value) {
+        if (type == null || value == null) {
+            return null;
+        }
+        String normalized = value.trim().toLowerCase();
+        if (normalized.isEmpty()) {
+            return null;
+        }
+        return "~" + type + ":" + normalized;
+    }
+
+    /**
+     * build a stable 64 bit id from normalized (trimmed and lower cased) parts
+     * uses FNV-1a, never returns 0 so it can be used as "not set"
+     *
+     * @param parts - strings to hash, null parts are hashed as empty
+     * @return - long content id
+     */
+    public static long contentId(String... parts) {
+        long hash = 0xcbf29ce484222325L;
+        for (String part : parts) {
+            String normalized = "";
+            if (part != null) {
+                normalized = part.trim().toLowerCase();
+            }
+            for (int i = 0; i < normalized.length(); i++) {
+                hash ^= normalized.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            // separator so ("ab", "c") and ("a", "bc") differ
+            hash ^= 0xff;
+            hash *= 0x100000001b3L;
+        }
+        if (hash == 0) {
+            return 1;
+        }
+        return hash;
+    }
+
+    /**
+     * add value to index under all its keys
+     *
+     * @param value - value to index
+     */
+    public void add(T value) {
+        if (value == null) {
+            logger.debug("null value provided in add");
+            return;
+        }
+        if (this.indexedKeys.containsKey(value)) {
+            return;
+        }
+        LinkedHashSet<String> keys = this.keyMapper.apply(value);
+        keys.remove(null);
+        for (String key : keys) {
+            this.buckets.computeIfAbsent(key, k -> new ArrayList<>()).add(value);
+        }
+        this.indexedKeys.put(value, keys);
+    }
+
+    /**
+     * remove value from index
+     *
+     * @param value - value to remove
+     */
+    public void remove(T value) {
+        if (value == null) {
+            logger.debug("null value provided in remove");
+            return;
+        }
+        LinkedHashSet<String> keys = this.indexedKeys.remove(value);
+        if (keys == null) {
+            return;
+        }
+        for (String key : keys) {
+            ArrayList<T> bucket = this.buckets.get(key);
+            if (bucket != null) {
+                bucket.removeIf(entry -> entry == value);
+                if (bucket.isEmpty()) {
+                    this.buckets.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * re-calculate keys of an indexed value
+     * needed after a value was modified (renamed, merged, ...)
+     *
+     * @param value - value to reindex
+     */
+    public void reindex(T value) {
+        this.remove(value);
+        this.add(value);
+    }
+
+    /**
+     * get all values indexed under a key
+     *
+     * @param key - key to get bucket of
+     * @return - arraylist of values, empty if none
+     */
+    public ArrayList<T> get(String key) {
+        if (key == null) {
+            return new ArrayList<>();
+        }
+        ArrayList<T> bucket = this.buckets.get(key);
+        if (bucket == null) {
+            return new ArrayList<>();
+        }
+        return bucket;
+    }
+
+    /**
+     * find an indexed value which matches the provided value
+     * only the values sharing atleast one key are compared
+     *
+     * @param value - value to find
+     * @return - found indexed value or null
+     */
+    public T find(T value) {
+        if (value == null) {
+            logger.debug("null value provided in find");
+            return null;
+        }
+        LinkedHashSet<String> keys = this.keyMapper.apply(value);
+        keys.remove(null);
+        for (String key : keys) {
+            for (T candidate : this.get(key)) {
+                if (this.matcher.test(candidate, value)) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * check if this exact value is indexed
+     *
+     * @param value - value to check
+     * @return - true if indexed
+     */
+    public boolean contains(T value) {
+        if (value == null) {
+            return false;
+        }
+        return this.indexedKeys.containsKey(value);
+    }
+
+    /**
+     * get amount of indexed values
+     *
+     * @return - int of indexed values
+     */
+    public int size() {
+        return this.indexedKeys.size();
+    }
+
+    /**
+     * clear all indexed values
+     */
+    public void clear() {
+        this.buckets.clear();
+        this.indexedKeys.clear();
+    }
+}
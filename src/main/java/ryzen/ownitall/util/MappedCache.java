@@ -0,0 +1,376 @@
+package ryzen.ownitall.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ * MappedCache class.
+ * </p>
+ * persistent key value cache backed by a memory mapped, append only file
+ * only keys and offsets are kept in memory, values are deserialized when
+ * requested
+ * changed entries are kept in memory (dirty) until they are flushed
+ * recently read values are kept in a BoundedCache
+ * without a file (memory only) every entry stays dirty and nothing is written
+ * record layout: [int key length][key][int value length][value]
+ *
+ * @author ryzen
+ */
+public class MappedCache<V> implements Closeable {
+    private static final Logger logger = new Logger(MappedCache.class);
+    private final File file;
+    private final Encoder<V> encoder;
+    private final Decoder<V> decoder;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    // key to offset of the record
+    private final HashMap<String, Long> offsets;
+    // bytes taken by records which were replaced
+    private long staleBytes;
+    // entries changed since the last flush
+    private final LinkedHashMap<String, V> dirty;
+    // dirty entries which are not in the file yet
+    private int newEntries;
+    private final BoundedCache<V> memoryCache;
+
+    /**
+     * convert a value to bytes
+     */
+    @FunctionalInterface
+    public interface Encoder<V> {
+        byte[] encode(V value) throws IOException;
+    }
+
+    /**
+     * convert bytes back to a value
+     */
+    @FunctionalInterface
+    public interface Decoder<V> {
+        V decode(byte[] bytes) throws IOException;
+    }
+
+    /**
+     * default MappedCache constructor
+     * opens (or creates) the file and builds the offset index
+     *
+     * @param file        - file to store cache in
+     * @param encoder     - function to convert a value to bytes
+     * @param decoder     - function to convert bytes to a value
+     * @param memoryCache - in memory cache of deserialized values
+     * @throws IOException - exception opening the file
+     */
+    public MappedCache(File file, Encoder<V> encoder, Decoder<V> decoder, BoundedCache<V> memoryCache)
+            throws IOException {
+        this.file = file;
+        this.encoder = encoder;
+        this.decoder = decoder;
+        this.memoryCache = memoryCache;
+        this.offsets = new HashMap<>();
+        this.dirty = new LinkedHashMap<>();
+        this.open();
+        // rewriting only pays off when most of the file is replaced records
+        if (this.staleBytes > this.channel.size() / 2) {
+            try {
+                this.compact();
+            } catch (IOException e) {
+                if (this.buffer == null || !this.channel.isOpen()) {
+                    // not even the un-compacted file could be opened again
+                    throw e;
+                }
+                logger.warn("Unable to compact cache '" + this.file.getAbsolutePath() + "': " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * memory only MappedCache constructor
+     * used when the cache file can not be opened, entries are lost on exit
+     *
+     * @param memoryCache - in memory cache of deserialized values
+     */
+    public MappedCache(BoundedCache<V> memoryCache) {
+        this.file = null;
+        this.encoder = null;
+        this.decoder = null;
+        this.memoryCache = memoryCache;
+        this.offsets = new HashMap<>();
+        this.dirty = new LinkedHashMap<>();
+    }
+
+    @SuppressWarnings("resource")
+    private void open() throws IOException {
+        this.channel = new RandomAccessFile(this.file, "rw").getChannel();
+        this.offsets.clear();
+        this.staleBytes = 0;
+        this.remap();
+        long position = 0;
+        long size = this.channel.size();
+        while (position + Integer.BYTES <= size) {
+            int keyLength = this.buffer.getInt((int) position);
+            long valuePosition = position + Integer.BYTES + keyLength;
+            if (keyLength < 0 || valuePosition + Integer.BYTES > size) {
+                break;
+            }
+            int valueLength = this.buffer.getInt((int) valuePosition);
+            long end = valuePosition + Integer.BYTES + valueLength;
+            if (valueLength < 0 || end > size) {
+                break;
+            }
+            byte[] keyBytes = new byte[keyLength];
+            this.buffer.get((int) position + Integer.BYTES, keyBytes);
+            Long previous = this.offsets.put(new String(keyBytes, StandardCharsets.UTF_8), position);
+            if (previous != null) {
+                this.staleBytes += this.getRecordSize(previous);
+            }
+            position = end;
+        }
+        if (position < size) {
+            // incomplete record from an interrupted write
+            logger.warn("Dropping " + (size - position) + " bytes of incomplete cache records in: '"
+                    + this.file.getAbsolutePath() + "'");
+            this.channel.truncate(position);
+            this.remap();
+        }
+        logger.debug("Indexed " + this.offsets.size() + " cache entries from: '" + this.file.getAbsolutePath()
+                + "'");
+    }
+
+    private void remap() throws IOException {
+        long size = this.channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("cache file too large to map: '" + this.file.getAbsolutePath() + "'");
+        }
+        this.buffer = this.channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+    }
+
+    private long getRecordSize(long position) throws IOException {
+        if (position >= this.buffer.capacity()) {
+            this.remap();
+        }
+        int keyLength = this.buffer.getInt((int) position);
+        int valueLength = this.buffer.getInt((int) position + Integer.BYTES + keyLength);
+        return Integer.BYTES * 2L + keyLength + valueLength;
+    }
+
+    /**
+     * get value of key
+     * from memory if recently used or changed, otherwise deserialized from the
+     * file
+     *
+     * @param key - key to get value of
+     * @return - value or null if not cached
+     */
+    public synchronized V get(String key) {
+        if (key == null) {
+            logger.debug("null key provided in get");
+            return null;
+        }
+        if (!this.containsKey(key)) {
+            return null;
+        }
+        V value = this.memoryCache.get(key);
+        if (value != null) {
+            return value;
+        }
+        if (this.dirty.containsKey(key)) {
+            return this.dirty.get(key);
+        }
+        Long position = this.offsets.get(key);
+        try {
+            if (position >= this.buffer.capacity()) {
+                this.remap();
+            }
+            int keyLength = this.buffer.getInt(position.intValue());
+            int valuePosition = position.intValue() + Integer.BYTES + keyLength;
+            byte[] valueBytes = new byte[this.buffer.getInt(valuePosition)];
+            this.buffer.get(valuePosition + Integer.BYTES, valueBytes);
+            value = this.decoder.decode(valueBytes);
+            this.memoryCache.put(key, value);
+            return value;
+        } catch (IOException e) {
+            logger.error("exception reading cache entry '" + key + "' from: '" + this.file.getAbsolutePath() + "'",
+                    e);
+            return null;
+        }
+    }
+
+    /**
+     * check if key is cached
+     *
+     * @param key - key to check
+     * @return - true if cached
+     */
+    public synchronized boolean containsKey(String key) {
+        return this.dirty.containsKey(key) || this.offsets.containsKey(key);
+    }
+
+    /**
+     * cache value under key
+     * the value is written on the next flush
+     *
+     * @param key   - key to cache value under
+     * @param value - value to cache
+     */
+    public synchronized void put(String key, V value) {
+        if (key == null || value == null) {
+            logger.debug("null key or value provided in put");
+            return;
+        }
+        if (!this.containsKey(key)) {
+            this.newEntries++;
+        }
+        this.dirty.put(key, value);
+        this.memoryCache.put(key, value);
+    }
+
+    /**
+     * get amount of cached entries
+     *
+     * @return - int of cached entries
+     */
+    public synchronized int size() {
+        return this.offsets.size() + this.newEntries;
+    }
+
+    /**
+     * <p>
+     * Getter for the field <code>memoryCache</code>.
+     * </p>
+     *
+     * @return a {@link ryzen.ownitall.util.BoundedCache} object
+     */
+    public BoundedCache<V> getMemoryCache() {
+        return this.memoryCache;
+    }
+
+    /**
+     * append all changed entries to the file
+     * existing records are never rewritten, nothing is done if nothing changed
+     */
+    public synchronized void flush() {
+        if (this.dirty.isEmpty() || this.channel == null) {
+            return;
+        }
+        int flushed = 0;
+        long bytes = 0;
+        long position;
+        try {
+            position = this.channel.size();
+        } catch (IOException e) {
+            logger.error("exception flushing cache: '" + this.file.getAbsolutePath() + "'", e);
+            return;
+        }
+        for (Map.Entry<String, V> entry : this.dirty.entrySet()) {
+            String key = entry.getKey();
+            try {
+                byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+                byte[] valueBytes = this.encoder.encode(entry.getValue());
+                ByteBuffer record = ByteBuffer.allocate(Integer.BYTES * 2 + keyBytes.length + valueBytes.length);
+                record.putInt(keyBytes.length).put(keyBytes).putInt(valueBytes.length).put(valueBytes).flip();
+                int recordSize = record.remaining();
+                while (record.hasRemaining()) {
+                    this.channel.write(record, position + record.position());
+                }
+                Long previous = this.offsets.put(key, position);
+                if (previous != null) {
+                    this.staleBytes += this.getRecordSize(previous);
+                }
+                position += recordSize;
+                bytes += recordSize;
+                flushed++;
+            } catch (IOException e) {
+                logger.error("exception writing cache entry '" + key + "' to: '" + this.file.getAbsolutePath() + "'",
+                        e);
+            }
+        }
+        this.dirty.clear();
+        this.newEntries = 0;
+        try {
+            this.channel.force(false);
+        } catch (IOException e) {
+            logger.error("exception forcing cache to disk: '" + this.file.getAbsolutePath() + "'", e);
+        }
+        logger.debug("Flushed " + flushed + " cache entries (" + bytes + " bytes) to: '"
+                + this.file.getAbsolutePath() + "'");
+    }
+
+    /**
+     * remove all cached entries
+     */
+    public synchronized void clear() {
+        if (this.channel != null) {
+            try {
+                this.channel.truncate(0);
+                this.remap();
+            } catch (IOException e) {
+                logger.error("exception clearing cache: '" + this.file.getAbsolutePath() + "'", e);
+            }
+        }
+        this.offsets.clear();
+        this.staleBytes = 0;
+        this.dirty.clear();
+        this.newEntries = 0;
+        this.memoryCache.clear();
+    }
+
+    /**
+     * rewrite the file with only the latest record of each key
+     * records are copied as bytes, nothing is deserialized
+     *
+     * @throws IOException - exception rewriting file
+     */
+    private void compact() throws IOException {
+        File tempFile = new File(this.file.getParentFile(), this.file.getName() + ".tmp");
+        long before = this.channel.size();
+        try (FileChannel tempChannel = new RandomAccessFile(tempFile, "rw").getChannel()) {
+            tempChannel.truncate(0);
+            for (Map.Entry<String, Long> entry : this.offsets.entrySet()) {
+                long position = entry.getValue();
+                long recordSize = this.getRecordSize(position);
+                long transferred = 0;
+                while (transferred < recordSize) {
+                    transferred += this.channel.transferTo(position + transferred, recordSize - transferred,
+                            tempChannel);
+                }
+            }
+        }
+        // the file has to be released before it can be replaced (windows)
+        this.buffer = null;
+        this.channel.close();
+        try {
+            Files.move(tempFile.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile.toPath());
+            throw e;
+        } finally {
+            // the un-compacted file when the move failed
+            this.open();
+        }
+        logger.debug("Compacted cache '" + this.file.getAbsolutePath() + "' from " + before + " to "
+                + this.channel.size() + " bytes");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        this.flush();
+        this.buffer = null;
+        if (this.channel != null) {
+            this.channel.close();
+        }
+    }
+}
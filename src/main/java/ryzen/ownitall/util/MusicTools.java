@@ -3,7 +3,6 @@ package ryzen.ownitall.util;
 import java.io.File;
 import java.io.StringWriter;
 import java.net.URI;
-import java.nio.file.Files;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
@@ -95,20 +94,15 @@ public class MusicTools {
         }
         if (coverImage != null) {
             try {
-                File tempFile = File.createTempFile(String.valueOf(songFile.getAbsolutePath().hashCode()),
-                        ".png");
-                tempFile.delete(); // to prevent throwing off the downloadimage function
-                WebTools.downloadImage(coverImage, tempFile);
-                if (tempFile.exists()) {
-                    byte[] imageData = Files.readAllBytes(tempFile.toPath());
-                    // Create artwork from the downloaded file
-                    Artwork artwork = ArtworkFactory.createArtworkFromFile(tempFile);
+                // songs of an album share their cover, it is only fetched once
+                byte[] imageData = ArtworkCache.get(coverImage);
+                if (imageData != null) {
+                    Artwork artwork = ArtworkFactory.getNew();
                     artwork.setBinaryData(imageData);
                     artwork.setMimeType("image/png");
                     artwork.setPictureType(PictureTypes.DEFAULT_ID);
                     tag.deleteArtworkField();
                     tag.setField(artwork);
-                    tempFile.delete();
                 }
             } catch (Exception e) {
                 logger.error(
@@ -144,6 +138,56 @@ public class MusicTools {
         AudioFileIO.write(audioFile);
     }
 
+    /**
+     * read all metadata of a song file with one read of the file
+     *
+     * @param songFile - song file to read metadata from
+     * @return - TrackMetadata with file metadata
+     * @throws java.lang.Exception - exception reading metadata
+     */
+    public static TrackMetadata readTrackMetadata(File songFile) throws Exception {
+        if (songFile == null || !songFile.isFile()) {
+            logger.debug("null or non file provided in readTrackMetadata");
+            return null;
+        }
+        AudioFile audioFile = AudioFileIO.read(songFile);
+        String title = null;
+        ArrayList<String> artists = new ArrayList<>();
+        String album = null;
+        String mbid = null;
+        boolean liked = false;
+        Tag tag = audioFile.getTag();
+        if (tag != null) {
+            title = getField(tag, FieldKey.TITLE);
+            String artistList = getField(tag, FieldKey.ARTIST);
+            if (artistList != null) {
+                for (String artist : artistList.split(";")) {
+                    if (!artist.isBlank()) {
+                        artists.add(artist.strip());
+                    }
+                }
+            }
+            album = getField(tag, FieldKey.ALBUM);
+            mbid = getField(tag, FieldKey.MUSICBRAINZ_RELEASEID);
+            // requires 5 stars
+            liked = tag.getFirst(FieldKey.RATING).equals("255");
+        }
+        Duration duration = Duration.ZERO;
+        AudioHeader audioHeader = audioFile.getAudioHeader();
+        if (audioHeader != null) {
+            duration = Duration.ofSeconds(audioHeader.getTrackLength());
+        }
+        return new TrackMetadata(title, artists, album, mbid, duration, liked);
+    }
+
+    private static String getField(Tag tag, FieldKey key) {
+        String value = tag.getFirst(key);
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        return value;
+    }
+
     /**
      * read metadata from song file
      *
@@ -157,21 +201,21 @@ public class MusicTools {
             return null;
         }
         LinkedHashMap<FieldKey, String> data = new LinkedHashMap<>();
-        AudioFile audioFile = AudioFileIO.read(songFile);
-        Tag tag = audioFile.getTag();
-        if (tag != null) {
-            if (!tag.getFirst(FieldKey.TITLE).isEmpty()) {
-                data.put(FieldKey.TITLE, tag.getFirst(FieldKey.TITLE));
-            }
-            if (!tag.getFirst(FieldKey.ARTIST).isEmpty()) {
-                data.put(FieldKey.ARTIST, tag.getFirst(FieldKey.ARTIST));
-            }
-            if (!tag.getFirst(FieldKey.MUSICBRAINZ_RELEASEID).isEmpty()) {
-                data.put(FieldKey.MUSICBRAINZ_RELEASEID, tag.getFirst(FieldKey.MUSICBRAINZ_RELEASEID));
-            }
-            if (!tag.getFirst(FieldKey.ALBUM).isEmpty()) {
-                data.put(FieldKey.ALBUM, tag.getFirst(FieldKey.ALBUM));
-            }
+        TrackMetadata metadata = readTrackMetadata(songFile);
+        if (metadata == null) {
+            return data;
+        }
+        if (metadata.getTitle() != null) {
+            data.put(FieldKey.TITLE, metadata.getTitle());
+        }
+        if (!metadata.getArtists().isEmpty()) {
+            data.put(FieldKey.ARTIST, String.join(";", metadata.getArtists()));
+        }
+        if (metadata.getMbid() != null) {
+            data.put(FieldKey.MUSICBRAINZ_RELEASEID, metadata.getMbid());
+        }
+        if (metadata.getAlbum() != null) {
+            data.put(FieldKey.ALBUM, metadata.getAlbum());
         }
         return data;
     }
@@ -189,15 +233,7 @@ public class MusicTools {
             logger.debug("null or non file provided in isSongLiked");
             return false;
         }
-        AudioFile audioFile = AudioFileIO.read(songFile);
-        Tag tag = audioFile.getTag();
-        if (tag != null) {
-            String rating = tag.getFirst(FieldKey.RATING);
-            if (rating.equals("255")) {
-                return true;
-            }
-        }
-        return false;
+        return readTrackMetadata(songFile).isLiked();
     }
 
     /**
@@ -212,9 +248,7 @@ public class MusicTools {
             logger.debug("null or non file provided in isSongLiked");
             return Duration.ZERO;
         }
-        AudioFile audioFile = AudioFileIO.read(songFile);
-        AudioHeader audioHeader = audioFile.getAudioHeader();
-        return Duration.ofSeconds(audioHeader.getTrackLength());
+        return readTrackMetadata(songFile).getDuration();
     }
 
     public static String removeBrackets(String string) {
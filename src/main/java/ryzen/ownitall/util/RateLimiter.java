@@ -0,0 +1,121 @@
+package ryzen.ownitall.util;
+
+import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * RateLimiter class.
+ * </p>
+ * token bucket rate limiter per upstream host
+ * hosts without a registered budget are unlimited
+ * lock free: each request reserves the next free slot with a compare and set
+ * and sleeps until it (the bucket is the amount of slots allowed ahead of now)
+ *
+ * @author ryzen
+ */
+public class RateLimiter {
+    private static final Logger logger = new Logger(RateLimiter.class);
+    private static final ConcurrentHashMap<String, RateLimiter> limiters = new ConcurrentHashMap<>();
+    private final long interval;
+    private final long burstInterval;
+    // time (nanos) at which all reserved slots have passed, the bucket is full
+    // when this is in the past
+    private final AtomicLong reservedUntil;
+
+    /**
+     * default RateLimiter constructor
+     *
+     * @param requestsPerSecond - sustained requests per second
+     * @param burst             - requests allowed at once after being idle
+     */
+    public RateLimiter(double requestsPerSecond, int burst) {
+        this.interval = (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+        this.burstInterval = this.interval * Math.max(burst, 1);
+        this.reservedUntil = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * set the request budget of a host, replaces an existing budget
+     *
+     * @param host              - host to limit, ex: "musicbrainz.org"
+     * @param requestsPerSecond - sustained requests per second, 0 or less for
+     *                          unlimited
+     * @param burst             - requests allowed at once after being idle
+     */
+    public static void register(String host, double requestsPerSecond, int burst) {
+        if (host == null) {
+            logger.debug("null host provided in register");
+            return;
+        }
+        if (requestsPerSecond <= 0) {
+            limiters.remove(host);
+            logger.debug("Removed rate limit of '" + host + "'");
+            return;
+        }
+        limiters.put(host, new RateLimiter(requestsPerSecond, burst));
+        logger.debug("Limiting '" + host + "' to " + requestsPerSecond + " requests per second");
+    }
+
+    /**
+     * set the request budget of a host unless it already has one
+     * keeps the slots already reserved, so constructing a library again does
+     * not reset its budget
+     *
+     * @param host              - host to limit, ex: "musicbrainz.org"
+     * @param requestsPerSecond - sustained requests per second
+     * @param burst             - requests allowed at once after being idle
+     */
+    public static void registerIfAbsent(String host, double requestsPerSecond, int burst) {
+        if (host == null) {
+            logger.debug("null host provided in registerIfAbsent");
+            return;
+        }
+        if (requestsPerSecond <= 0) {
+            logger.debug("invalid requests per second provided in registerIfAbsent");
+            return;
+        }
+        if (limiters.putIfAbsent(host, new RateLimiter(requestsPerSecond, burst)) == null) {
+            logger.debug("Limiting '" + host + "' to " + requestsPerSecond + " requests per second");
+        }
+    }
+
+    /**
+     * wait until a request to the host of the url is allowed
+     *
+     * @param url - url which is going to be requested
+     * @throws InterruptedException - when interrupted while waiting
+     */
+    public static void acquire(URI url) throws InterruptedException {
+        if (url == null || url.getHost() == null) {
+            return;
+        }
+        RateLimiter limiter = limiters.get(url.getHost());
+        if (limiter != null) {
+            limiter.acquire();
+        }
+    }
+
+    /**
+     * wait until a request is allowed
+     *
+     * @throws InterruptedException - when interrupted while waiting
+     */
+    public void acquire() throws InterruptedException {
+        while (true) {
+            long now = System.nanoTime();
+            long current = this.reservedUntil.get();
+            // a bucket idle for long is full, not fuller
+            long next = Math.max(current, now) + this.interval;
+            if (this.reservedUntil.compareAndSet(current, next)) {
+                long wait = next - now - this.burstInterval;
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+                return;
+            }
+        }
+    }
+}
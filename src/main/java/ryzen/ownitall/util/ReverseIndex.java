@@ -0,0 +1,171 @@
+package ryzen.ownitall.util;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * ReverseIndex class.
+ * </p>
+ * maps values to the containers they are part of (song to albums, ...)
+ * values are matched through a HashIndex, so a matching value also finds the
+ * containers
+ *
+ * @author ryzen
+ */
+public class ReverseIndex<T, C> {
+    private static final Logger logger = new Logger(ReverseIndex.class);
+    private final HashIndex<T> index;
+    private final IdentityHashMap<T, ArrayList<C>> containers;
+
+    /**
+     * default ReverseIndex constructor
+     *
+     * @param keyMapper - function returning all keys a value is indexed under
+     * @param matcher   - (indexed value, searched value) predicate to match
+     *                  values
+     */
+    public ReverseIndex(Function<T, LinkedHashSet<String>> keyMapper, BiPredicate<T, T> matcher) {
+        this.index = new HashIndex<>(keyMapper, matcher);
+        this.containers = new IdentityHashMap<>();
+    }
+
+    /**
+     * register value as part of container
+     *
+     * @param value     - value in container
+     * @param container - container holding value
+     */
+    public void add(T value, C container) {
+        if (value == null || container == null) {
+            logger.debug("null value or container provided in add");
+            return;
+        }
+        ArrayList<C> valueContainers = this.containers.computeIfAbsent(value, k -> new ArrayList<>());
+        for (C valueContainer : valueContainers) {
+            if (valueContainer == container) {
+                return;
+            }
+        }
+        valueContainers.add(container);
+        this.index.add(value);
+    }
+
+    /**
+     * register values as part of container
+     *
+     * @param values    - values in container
+     * @param container - container holding values
+     */
+    public void addAll(Iterable<T> values, C container) {
+        if (values == null) {
+            logger.debug("null values provided in addAll");
+            return;
+        }
+        for (T value : values) {
+            this.add(value, container);
+        }
+    }
+
+    /**
+     * unregister value from container
+     *
+     * @param value     - value to unregister
+     * @param container - container which no longer holds value
+     */
+    public void remove(T value, C container) {
+        if (value == null || container == null) {
+            logger.debug("null value or container provided in remove");
+            return;
+        }
+        ArrayList<C> valueContainers = this.containers.get(value);
+        if (valueContainers == null) {
+            return;
+        }
+        valueContainers.removeIf(valueContainer -> valueContainer == container);
+        if (valueContainers.isEmpty()) {
+            this.containers.remove(value);
+            this.index.remove(value);
+        }
+    }
+
+    /**
+     * unregister values from container
+     *
+     * @param values    - values to unregister
+     * @param container - container which no longer holds values
+     */
+    public void removeAll(Iterable<T> values, C container) {
+        if (values == null) {
+            logger.debug("null values provided in removeAll");
+            return;
+        }
+        for (T value : values) {
+            this.remove(value, container);
+        }
+    }
+
+    /**
+     * update the keys of a value after it was modified
+     *
+     * @param value - modified value
+     */
+    public void reindex(T value) {
+        if (this.index.contains(value)) {
+            this.index.reindex(value);
+        }
+    }
+
+    /**
+     * get all containers holding the value (or a matching value)
+     *
+     * @param value - value to get containers of
+     * @return - arraylist of containers, empty if none
+     */
+    public ArrayList<C> get(T value) {
+        if (value == null) {
+            logger.debug("null value provided in get");
+            return new ArrayList<>();
+        }
+        T foundValue = this.index.contains(value) ? value : this.index.find(value);
+        if (foundValue == null) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(this.containers.get(foundValue));
+    }
+
+    /**
+     * get first container holding the value (or a matching value)
+     *
+     * @param value - value to get container of
+     * @return - container or null
+     */
+    public C getFirst(T value) {
+        ArrayList<C> valueContainers = this.get(value);
+        if (valueContainers.isEmpty()) {
+            return null;
+        }
+        return valueContainers.get(0);
+    }
+
+    /**
+     * check if value (or a matching value) is part of any container
+     *
+     * @param value - value to check
+     * @return - true if in atleast one container
+     */
+    public boolean contains(T value) {
+        return this.getFirst(value) != null;
+    }
+
+    /**
+     * clear all registered values
+     */
+    public void clear() {
+        this.index.clear();
+        this.containers.clear();
+    }
+}
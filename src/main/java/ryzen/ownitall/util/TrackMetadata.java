@@ -0,0 +1,119 @@
+package ryzen.ownitall.util;
+
+import java.time.Duration;
+import java.util.ArrayList;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * <p>
+ * TrackMetadata class.
+ * </p>
+ * everything read from a song file, read with one pass over the file
+ *
+ * @author ryzen
+ */
+public class TrackMetadata {
+    private final String title;
+    private final ArrayList<String> artists;
+    private final String album;
+    private final String mbid;
+    private final Duration duration;
+    private final boolean liked;
+
+    /**
+     * default TrackMetadata constructor
+     *
+     * @param title    - song title, null if not tagged
+     * @param artists  - artist names, empty if not tagged
+     * @param album    - album name, null if not tagged
+     * @param mbid     - musicbrainz release id, null if not tagged
+     * @param duration - length of the song, zero if unknown
+     * @param liked    - if the song is rated 5 stars
+     */
+    @JsonCreator
+    public TrackMetadata(@JsonProperty("title") String title, @JsonProperty("artists") ArrayList<String> artists,
+            @JsonProperty("album") String album, @JsonProperty("mbid") String mbid,
+            @JsonProperty("duration") Duration duration, @JsonProperty("liked") boolean liked) {
+        this.title = title;
+        this.artists = new ArrayList<>();
+        if (artists != null) {
+            this.artists.addAll(artists);
+        }
+        this.album = album;
+        this.mbid = mbid;
+        if (duration == null) {
+            this.duration = Duration.ZERO;
+        } else {
+            this.duration = duration;
+        }
+        this.liked = liked;
+    }
+
+    /**
+     * <p>
+     * Getter for the field <code>title</code>.
+     * </p>
+     *
+     * @return a {@link java.lang.String} object
+     */
+    public String getTitle() {
+        return this.title;
+    }
+
+    /**
+     * <p>
+     * Getter for the field <code>artists</code>.
+     * </p>
+     *
+     * @return a {@link java.util.ArrayList} object
+     */
+    public ArrayList<String> getArtists() {
+        return new ArrayList<>(this.artists);
+    }
+
+    /**
+     * <p>
+     * Getter for the field <code>album</code>.
+     * </p>
+     *
+     * @return a {@link java.lang.String} object
+     */
+    public String getAlbum() {
+        return this.album;
+    }
+
+    /**
+     * <p>
+     * Getter for the field <code>mbid</code>.
+     * </p>
+     *
+     * @return a {@link java.lang.String} object
+     */
+    public String getMbid() {
+        return this.mbid;
+    }
+
+    /**
+     * <p>
+     * Getter for the field <code>duration</code>.
+     * </p>
+     *
+     * @return a {@link java.time.Duration} object
+     */
+    public Duration getDuration() {
+        return this.duration;
+    }
+
+    /**
+     * <p>
+     * isLiked.
+     * </p>
+     *
+     * @return a boolean
+     */
+    public boolean isLiked() {
+        return this.liked;
+    }
+}
@@ -1,24 +1,25 @@
 package ryzen.ownitall.util;
 
 import java.awt.Desktop;
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.OutputStream;
-import java.net.HttpURLConnection;
 import java.net.InetSocketAddress;
 import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.file.Files;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -33,7 +34,18 @@ public class WebTools {
     private static final String redirectUri = "http%3A%2F%2Flocalhost%3A8081%2Foauth";
     public static long retries = 5;
     public static long timeout = 20; // timeout in seconds
-    private static long lastQueryTime = 0;
+    private static final String userAgent = "OwnItAll/1.0 (https://github.com/ryzenpay/ownitall)";
+    // keeps connections alive between requests, HTTP/2 if the server supports it
+    private static final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(Duration.ofSeconds(timeout))
+            .build();
+    private static final HttpClient redirectClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .connectTimeout(Duration.ofSeconds(timeout))
+            .build();
 
     public static String generateCodeVerifier() {
         SecureRandom sr = new SecureRandom();
@@ -55,62 +67,119 @@ public class WebTools {
     }
 
     /**
-     * ensure requests are not sent faster than the query
-     * 
-     * @param queryDiff - milliseconds of timeout between requests
-     * @throws InterruptedException
+     * <p>
+     * Getter for the field <code>client</code>.
+     * </p>
+     * shared by all queries so connections are kept alive and reused
+     *
+     * @return a {@link java.net.http.HttpClient} object
      */
-    public static void queryPacer(long queryDiff) throws InterruptedException {
-        long currentTime = System.currentTimeMillis();
-        long elapsedTime = currentTime - lastQueryTime;
-        if (elapsedTime < queryDiff) {
-            TimeUnit.MILLISECONDS.sleep(queryDiff - elapsedTime);
-        }
+    public static HttpClient getClient() {
+        return client;
     }
 
-    public static JsonNode query(HttpURLConnection connection) throws QueryException {
-        return query(connection, 0);
+    /**
+     * create a request with the default headers
+     * gzip responses are accepted, query decompresses them
+     *
+     * @param url - url to request
+     * @return - request builder to add method, headers and body to
+     */
+    public static HttpRequest.Builder request(URI url) {
+        return HttpRequest.newBuilder(url)
+                .timeout(Duration.ofSeconds(timeout))
+                .header("Accept-Encoding", "gzip")
+                .header("User-Agent", userAgent);
     }
 
-    public static JsonNode query(HttpURLConnection connection, int attempt) throws QueryException {
-        try {
-            BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-            StringBuilder response = new StringBuilder();
-            String line;
-
-            while ((line = reader.readLine()) != null) {
-                response.append(line);
-            }
-            JsonNode rootNode = objectMapper.readTree(response.toString());
-            if (rootNode.has("error") || rootNode.has("failed")) {
-                throw new QueryException(rootNode.toString());
-            }
-            lastQueryTime = System.currentTimeMillis();
-            return rootNode;
-        } catch (IOException e) {
+    /**
+     * send request and parse the json response
+     * retries when receiving too many requests
+     *
+     * @param request - request to send, see request()
+     * @return - JsonNode response or null if the page does not exist
+     * @throws QueryException       - error response or exception sending
+     * @throws InterruptedException - when interrupted while sending or waiting
+     *                              to retry
+     */
+    public static JsonNode query(HttpRequest request) throws QueryException, InterruptedException {
+        if (request == null) {
+            logger.debug("null request provided in query");
+            return null;
+        }
+        for (int attempt = 0;; attempt++) {
+            HttpResponse<InputStream> response;
             try {
-                switch (connection.getResponseCode()) {
-                    case 429: // too many requests
-                        if (attempt > retries) {
-                            throw new QueryException("Reached 5 retries");
-                        }
-                        logger.debug("Too many requests, trying again in 30 seconds...");
-                        TimeUnit.SECONDS.sleep(timeout);
-                        return query(connection, attempt++);
-                    case 404:
-                        logger.debug("Requested page '" + connection.getURL().toString() + "'does not exist");
-                        return null;
-                    default:
-                        logger.error("Unknown exception processing: " + connection.getURL().toString(), e);
-                        throw new QueryException(e);
+                response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            } catch (IOException e) {
+                logger.error("Exception sending request: " + request.uri(), e);
+                throw new QueryException(e);
+            }
+            // parsed straight from the stream, the body is never held as a string
+            try (InputStream body = getBody(response)) {
+                int code = response.statusCode();
+                if (code == 429) { // too many requests
+                    if (attempt >= retries) {
+                        throw new QueryException("Reached " + retries + " retries");
+                    }
+                    logger.debug("Too many requests, trying again in " + timeout + " seconds...");
+                    TimeUnit.SECONDS.sleep(timeout);
+                    continue;
+                }
+                if (code == 404) {
+                    logger.debug("Requested page '" + request.uri() + "'does not exist");
+                    return null;
                 }
-            } catch (IOException | InterruptedException f) {
-                logger.error("Exception retreiving response code from request", e);
+                if (code >= 400) {
+                    logger.debug("Received code " + code + " from: " + request.uri());
+                    throw new QueryException(String.valueOf(code), new String(body.readNBytes(512)));
+                }
+                JsonNode rootNode = objectMapper.readTree(body);
+                if (rootNode.has("error") || rootNode.has("failed")) {
+                    throw new QueryException(rootNode.toString());
+                }
+                return rootNode;
+            } catch (IOException e) {
+                logger.error("Exception reading response of: " + request.uri(), e);
                 throw new QueryException(e);
             }
         }
     }
 
+    /**
+     * get where url redirects to, without following it
+     *
+     * @param url - url to check
+     * @return - URI redirected to or null if not redirected
+     * @throws QueryException       - exception sending request
+     * @throws InterruptedException - when interrupted while sending
+     */
+    public static URI getRedirect(URI url) throws QueryException, InterruptedException {
+        if (url == null) {
+            logger.debug("null url provided in getRedirect");
+            return null;
+        }
+        HttpRequest request = request(url).method("HEAD", HttpRequest.BodyPublishers.noBody()).build();
+        try {
+            HttpResponse<Void> response = redirectClient.send(request, HttpResponse.BodyHandlers.discarding());
+            String location = response.headers().firstValue("Location").orElse(null);
+            if (location == null) {
+                return null;
+            }
+            return url.resolve(location);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new QueryException(e);
+        }
+    }
+
+    private static InputStream getBody(HttpResponse<InputStream> response) throws IOException {
+        String encoding = response.headers().firstValue("Content-Encoding").orElse("");
+        if (encoding.equalsIgnoreCase("gzip")) {
+            return new GZIPInputStream(response.body());
+        }
+        return response.body();
+    }
+
     /**
      * download an image from the web
      *
@@ -127,10 +196,37 @@ public class WebTools {
             logger.debug("coverimage already found: '" + file.getAbsolutePath() + "'");
             return;
         }
-        try (InputStream in = url.toURL().openStream()) {
-            Files.copy(in, file.toPath());
-        } catch (FileNotFoundException e) {
-            logger.debug("Image at url '" + url + "' not found");
+        byte[] image = getImage(url);
+        if (image != null) {
+            Files.write(file.toPath(), image);
+        }
+    }
+
+    /**
+     * fetch an image from the web
+     *
+     * @param url - URI to fetch image from
+     * @return - image data or null if not found
+     * @throws java.io.IOException - java.io.IOException while fetching
+     */
+    public static byte[] getImage(URI url) throws IOException {
+        if (url == null) {
+            logger.debug("null url passed in getImage");
+            return null;
+        }
+        try {
+            HttpResponse<InputStream> response = client.send(request(url).GET().build(),
+                    HttpResponse.BodyHandlers.ofInputStream());
+            try (InputStream in = getBody(response)) {
+                if (response.statusCode() >= 400) {
+                    logger.debug("Image at url '" + url + "' not found");
+                    return null;
+                }
+                return in.readAllBytes();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while downloading image '" + url + "'", e);
         }
     }
 
@@ -248,16 +344,17 @@ public class WebTools {
             url += "&code=" + code;
             url += "&code_verifier=" + codeVerifier;
             URI uri = URI.create(url);
-            HttpURLConnection connection = (HttpURLConnection) uri.toURL().openConnection();
-            connection.setRequestMethod("POST");
-            connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
-            JsonNode response = WebTools.query(connection);
-            if (response.has("access_token")) {
+            HttpRequest request = request(uri)
+                    .header("Content-Type", "application/x-www-form-urlencoded")
+                    .POST(HttpRequest.BodyPublishers.noBody())
+                    .build();
+            JsonNode response = WebTools.query(request);
+            if (response != null && response.has("access_token")) {
                 return response.path("access_token").asText();
             } else {
-                throw new AuthenticationException("no access token in response: " + response.toString());
+                throw new AuthenticationException("no access token in response: " + response);
             }
-        } catch (IOException | QueryException | InterruptedException e) {
+        } catch (QueryException | InterruptedException e) {
             throw new AuthenticationException(e);
         }
     }